@@ -3,10 +3,15 @@ package edu.hm.hafner.coverage;
 import java.io.Serial;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.ImmutablePair;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 /**
@@ -18,6 +23,12 @@ public final class ClassNode extends Node {
 
     private List<TestCase> testCases = new ArrayList<>();
 
+    /** Index of the methods of this class, keyed by method name and signature. Will be created on demand. */
+    @CheckForNull
+    private transient Map<ImmutablePair<String, String>, MethodNode> methodsBySignature;
+    /** The number of children that are no methods or that have children on their own. */
+    private transient int nestedNodes;
+
     /**
      * Creates a new {@link ClassNode} with the given name.
      *
@@ -44,6 +55,68 @@ public final class ClassNode extends Node {
         return EMPTY_NAME;
     }
 
+    @Override
+    NodeVisitor.VisitResult accept(final NodeVisitor visitor) {
+        return visitor.visitClass(this);
+    }
+
+    @Override
+    public Optional<MethodNode> findMethod(final String searchName, final String searchSignature) {
+        var method = getMethodsBySignature().get(new ImmutablePair<>(searchName, searchSignature));
+        if (method != null || nestedNodes == 0) {
+            return Optional.ofNullable(method);
+        }
+        return super.findMethod(searchName, searchSignature); // search the unexpected nested nodes as well
+    }
+
+    private Map<ImmutablePair<String, String>, MethodNode> getMethodsBySignature() {
+        var index = methodsBySignature;
+        if (index == null) {
+            var methods = new HashMap<ImmutablePair<String, String>, MethodNode>();
+            nestedNodes = 0;
+            forEachChild(child -> indexChild(methods, child));
+            methodsBySignature = methods;
+            index = methods;
+        }
+        return index;
+    }
+
+    private void indexChild(final Map<ImmutablePair<String, String>, MethodNode> index, final Node child) {
+        if (child instanceof MethodNode methodNode) {
+            index.putIfAbsent(
+                    new ImmutablePair<>(methodNode.getMethodName(), methodNode.getSignature()), methodNode);
+        }
+        if (!(child instanceof MethodNode) || child.hasChildren()) {
+            nestedNodes++;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("PMD.NullAssignment") // the index will be recreated on demand
+    void invalidateIndexOfChildren() {
+        super.invalidateIndexOfChildren();
+
+        methodsBySignature = null;
+    }
+
+    @Override
+    void childAdded(final Node child) {
+        var index = methodsBySignature;
+        if (index != null) {
+            indexChild(index, child);
+        }
+    }
+
+    @Override
+    void childRemoved(final Node child) {
+        invalidateIndexOfChildren();
+    }
+
+    @Override
+    void freezeNode() {
+        getMethodsBySignature();
+    }
+
     @Override
     public ClassNode copy() {
         var copy = new ClassNode(getName());
@@ -87,13 +160,15 @@ public final class ClassNode extends Node {
      *         the test cases to add
      */
     public void addTestCases(final Collection<TestCase> additionalTestCases) {
+        ensureMutable();
+
         this.testCases.addAll(additionalTestCases);
 
         updateTestCount();
     }
 
     private void updateTestCount() {
-        replaceValue(new Value(Metric.TESTS, testCases.size()));
+        replaceValue(Value.valueOf(Metric.TESTS, testCases.size()));
     }
 
     @Override
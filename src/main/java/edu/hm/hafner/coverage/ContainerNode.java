@@ -22,6 +22,11 @@ public final class ContainerNode extends Node {
         super(Metric.CONTAINER, name);
     }
 
+    @Override
+    NodeVisitor.VisitResult accept(final NodeVisitor visitor) {
+        return visitor.visitContainer(this);
+    }
+
     @Override
     public ContainerNode copy() {
         return new ContainerNode(getName());
@@ -41,6 +41,11 @@ public final class Coverage extends Value {
      *         if the string is not a valid Coverage instance
      */
     public static Coverage valueOf(final Metric metric, final String stringRepresentation) {
+        var parsed = ValueParser.parseCoverage(metric, stringRepresentation);
+        if (parsed != null) {
+            return parsed;
+        }
+
         var errorMessage = "Cannot convert %s to a valid Coverage instance.".formatted(stringRepresentation);
         try {
             var cleanedFormat = StringUtils.deleteWhitespace(stringRepresentation);
@@ -487,7 +492,7 @@ public final class Coverage extends Value {
                         // use constructor to create instance
                 }
             }
-            return new Coverage(metric, covered, missed);
+            return ValuePool.getDefault().intern(new Coverage(metric, covered, missed));
         }
 
         /**
@@ -19,9 +19,19 @@ class CoverageMetricsValues {
      * @param missed   the missed count
      */
     CoverageMetricsValues(final int covered, final int missed) {
-        this.covered = covered;
-        this.missed = missed;
-        this.total = covered + missed;
+        set(covered, missed);
+    }
+
+    /**
+     * Replaces the values for covered and missing. This allows reusing an instance for several lines.
+     *
+     * @param coveredCount  the coverage count
+     * @param missedCount   the missed count
+     */
+    public final void set(final int coveredCount, final int missedCount) {
+        this.covered = coveredCount;
+        this.missed = missedCount;
+        this.total = coveredCount + missedCount;
     }
 
     /**
@@ -77,6 +77,7 @@ public abstract class CoverageParser implements Serializable {
     public ModuleNode parse(final Reader reader, final String fileName, final FilteredLog log) {
         var moduleNode = parseReport(reader, fileName, log);
         getTreeStringBuilder().dedup();
+        moduleNode.getAllFileNodes().forEach(FileNode::compactLineCounters);
         return moduleNode;
     }
 
@@ -27,7 +27,7 @@ public class Difference extends Value {
      * @return the {@code null} object
      */
     public static Difference nullObject(final Metric metric) {
-        return new Difference(metric, 0);
+        return ValuePool.getDefault().intern(new Difference(metric, 0));
     }
 
     /**
@@ -0,0 +1,120 @@
+package edu.hm.hafner.coverage;
+
+/**
+ * A summary of the line based coverage counters of a {@link FileNode}. The summary is computed in a single pass over
+ * the counters of all lines and will be cached by the file until the counters change. So queries that only need the
+ * totals of a file do not need to scan the lines again.
+ *
+ * @param instrumentedLines
+ *         the number of lines with line coverage counters
+ * @param coveredLines
+ *         the number of lines with at least one covered item
+ * @param missedLines
+ *         the number of lines without covered items
+ * @param partiallyCoveredLines
+ *         the number of lines with covered and missed items
+ * @param coveredBranches
+ *         the number of covered branches (of all lines with more than one item)
+ * @param missedBranches
+ *         the number of missed branches (of all lines with more than one item)
+ * @param coveredMcdcPairs
+ *         the number of covered MC/DC pairs
+ * @param missedMcdcPairs
+ *         the number of missed MC/DC pairs
+ * @param coveredFunctionCalls
+ *         the number of covered function calls
+ * @param missedFunctionCalls
+ *         the number of missed function calls
+ * @param firstLine
+ *         the first line with line coverage counters, or 0 if there are no such lines
+ * @param lastLine
+ *         the last line with line coverage counters, or 0 if there are no such lines
+ * @author Ullrich Hafner
+ */
+public record FileCoverageSummary(int instrumentedLines, int coveredLines, int missedLines, int partiallyCoveredLines,
+                                  int coveredBranches, int missedBranches,
+                                  int coveredMcdcPairs, int missedMcdcPairs,
+                                  int coveredFunctionCalls, int missedFunctionCalls,
+                                  int firstLine, int lastLine) {
+    /**
+     * Computes the summary of the specified counters.
+     *
+     * @param lineCounters
+     *         the line and branch counters
+     * @param mcdcPairCounters
+     *         the MC/DC pair counters
+     * @param functionCallCounters
+     *         the function call counters
+     *
+     * @return the summary
+     */
+    static FileCoverageSummary summarize(final LineCounters lineCounters, final LineCounters mcdcPairCounters,
+            final LineCounters functionCallCounters) {
+        var lines = new Totals();
+        lineCounters.forEach(lines);
+        var mcdcPairs = new Totals();
+        mcdcPairCounters.forEach(mcdcPairs);
+        var functionCalls = new Totals();
+        functionCallCounters.forEach(functionCalls);
+
+        int size = lineCounters.size();
+        int firstLine = size == 0 ? 0 : (int) lineCounters.cursor().getLine();
+        return new FileCoverageSummary(size, lines.coveredLines, size - lines.coveredLines,
+                lines.partiallyCoveredLines, lines.coveredBranches, lines.missedBranches,
+                mcdcPairs.coveredItems, mcdcPairs.missedItems, functionCalls.coveredItems, functionCalls.missedItems,
+                firstLine, lines.lastLine);
+    }
+
+    /**
+     * Returns whether the file has lines with line coverage counters.
+     *
+     * @return {@code true} if the file has instrumented lines, {@code false} otherwise
+     */
+    public boolean hasInstrumentedLines() {
+        return instrumentedLines > 0;
+    }
+
+    /**
+     * Returns whether the specified range of lines overlaps the range of instrumented lines.
+     *
+     * @param from
+     *         the first line of the range
+     * @param to
+     *         the last line of the range
+     *
+     * @return {@code true} if the ranges overlap, {@code false} otherwise
+     */
+    public boolean overlaps(final int from, final int to) {
+        return hasInstrumentedLines() && from <= lastLine && to >= firstLine;
+    }
+
+    /**
+     * Accumulates the totals of the counters of all lines in a single pass.
+     */
+    private static final class Totals implements LineCounters.LineCounterConsumer {
+        private int coveredLines;
+        private int partiallyCoveredLines;
+        private int coveredBranches;
+        private int missedBranches;
+        private int coveredItems;
+        private int missedItems;
+        private int lastLine;
+
+        @Override
+        public void accept(final int line, final int covered, final int missed) {
+            if (covered > 0) {
+                coveredLines++;
+                if (missed > 0) {
+                    partiallyCoveredLines++;
+                }
+            }
+            if (covered + missed > 1) {
+                coveredBranches += covered;
+                missedBranches += missed;
+            }
+            coveredItems += covered;
+            missedItems += missed;
+            lastLine = line;
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package edu.hm.hafner.coverage;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serial;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -17,7 +22,6 @@ import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -29,6 +33,7 @@ import edu.hm.hafner.util.Ensure;
 import edu.hm.hafner.util.LineRange;
 import edu.hm.hafner.util.LineRangeList;
 import edu.hm.hafner.util.TreeString;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 /**
@@ -36,28 +41,69 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
  *
  * @author Ullrich Hafner
  */
-@SuppressWarnings({"PMD.GodClass", "PMD.CyclomaticComplexity", "PMD.CouplingBetweenObjects", "PMD.ExcessivePublicCount"})
+@SuppressWarnings({"PMD.GodClass", "PMD.CyclomaticComplexity", "PMD.CouplingBetweenObjects", "PMD.ExcessivePublicCount",
+        "checkstyle:ClassFanOutComplexity"})
 public final class FileNode extends Node {
     @Serial
     private static final long serialVersionUID = -3795695377267542624L; // Set to 1 when release 1.0.0 is ready
-    private static final int UNSET = -1;
 
-    private final NavigableMap<Integer, Integer> coveredPerLine = new TreeMap<>();
-    private final NavigableMap<Integer, Integer> missedPerLine = new TreeMap<>();
+    private static final String COVERED_PER_LINE = "coveredPerLine";
+    private static final String MISSED_PER_LINE = "missedPerLine";
+    private static final String MCDC_PAIR_COVERED_PER_LINE = "mcdcPairCoveredPerLine";
+    private static final String MCDC_PAIR_MISSED_PER_LINE = "mcdcPairMissedPerLine";
+    private static final String FUNCTION_CALL_COVERED_PER_LINE = "functionCallCoveredPerLine";
+    private static final String FUNCTION_CALL_MISSED_PER_LINE = "functionCallMissedPerLine";
+    private static final String MUTATIONS = "mutations";
+    private static final String MODIFIED_LINES = "modifiedLines";
+    private static final String INDIRECT_COVERAGE_CHANGES = "indirectCoverageChanges";
+    private static final String COVERAGE_DELTA = "coverageDelta";
+    private static final String RELATIVE_PATH = "relativePath";
+    private static final String LINE_COVERAGE_RUNS = "lineCoverageRuns";
+    private static final String MODIFIED_LINE_INTERVALS = "modifiedLineIntervals";
 
+    /**
+     * The serialized form of a file node. The counters per line are serialized as maps in order to be compatible with
+     * older releases that stored the counters in maps. If the line counters are run-length encoded, then only the runs
+     * are serialized instead of the maps of the line counters, so that long runs of lines with the same counters do
+     * not enlarge the serialized form. The maps of the line counters are still read from older serializations. The
+     * modified lines are serialized as a set in order to be compatible with older releases, and as intervals, so that
+     * newer releases can restore the intervals without merging the lines again.
+     */
+    @Serial
+    @SuppressWarnings("unused") // used by the serialization
+    private static final ObjectStreamField[] serialPersistentFields = {
+            new ObjectStreamField(COVERED_PER_LINE, NavigableMap.class),
+            new ObjectStreamField(MISSED_PER_LINE, NavigableMap.class),
+            new ObjectStreamField(MCDC_PAIR_COVERED_PER_LINE, NavigableMap.class),
+            new ObjectStreamField(MCDC_PAIR_MISSED_PER_LINE, NavigableMap.class),
+            new ObjectStreamField(FUNCTION_CALL_COVERED_PER_LINE, NavigableMap.class),
+            new ObjectStreamField(FUNCTION_CALL_MISSED_PER_LINE, NavigableMap.class),
+            new ObjectStreamField(MUTATIONS, List.class),
+            new ObjectStreamField(MODIFIED_LINES, SortedSet.class),
+            new ObjectStreamField(INDIRECT_COVERAGE_CHANGES, NavigableMap.class),
+            new ObjectStreamField(COVERAGE_DELTA, NavigableMap.class),
+            new ObjectStreamField(RELATIVE_PATH, TreeString.class),
+            new ObjectStreamField(LINE_COVERAGE_RUNS, int[].class), // @since 0.54.0
+            new ObjectStreamField(MODIFIED_LINE_INTERVALS, int[].class) // @since 0.54.0
+    };
+
+    private transient LineCounters lineCounters = new LineCounters();
     // metrics for MC/DC pairs per line
-    private NavigableMap<Integer, Integer> mcdcPairCoveredPerLine = new TreeMap<>();
-    private NavigableMap<Integer, Integer> mcdcPairMissedPerLine = new TreeMap<>();
-
+    private transient LineCounters mcdcPairCounters = new LineCounters();
     // metrics for function calls per line
-    private NavigableMap<Integer, Integer> functionCallCoveredPerLine = new TreeMap<>();
-    private NavigableMap<Integer, Integer> functionCallMissedPerLine = new TreeMap<>();
+    private transient LineCounters functionCallCounters = new LineCounters();
 
-    private final List<Mutation> mutations = new ArrayList<>();
+    private List<Mutation> mutations = new ArrayList<>();
+    /** The mutations grouped by line, will be created on demand and cleared on changes. */
+    @CheckForNull
+    private transient MutationIndex mutationIndex;
+    /** The summary of the line counters, will be created on demand and cleared on changes. */
+    @CheckForNull
+    private transient FileCoverageSummary summary;
 
-    private final SortedSet<Integer> modifiedLines = new TreeSet<>();
-    private final NavigableMap<Integer, Integer> indirectCoverageChanges = new TreeMap<>();
-    private final NavigableMap<Metric, Value> coverageDelta = new TreeMap<>();
+    private transient LineIntervals modifiedLines = new LineIntervals();
+    private NavigableMap<Integer, Integer> indirectCoverageChanges = new TreeMap<>();
+    private NavigableMap<Metric, Value> coverageDelta = new TreeMap<>();
 
     private TreeString relativePath; // @since 0.22.0
 
@@ -92,6 +138,64 @@ public final class FileNode extends Node {
         return relativePath.toString() + getName();
     }
 
+    @Serial
+    private void writeObject(final ObjectOutputStream output) throws IOException {
+        var fields = output.putFields();
+        if (lineCounters.isRunLengthEncoded()) {
+            fields.put(LINE_COVERAGE_RUNS, lineCounters.toRuns());
+        }
+        else {
+            fields.put(COVERED_PER_LINE, lineCounters.toCoveredMap());
+            fields.put(MISSED_PER_LINE, lineCounters.toMissedMap());
+        }
+        fields.put(MCDC_PAIR_COVERED_PER_LINE, mcdcPairCounters.toCoveredMap());
+        fields.put(MCDC_PAIR_MISSED_PER_LINE, mcdcPairCounters.toMissedMap());
+        fields.put(FUNCTION_CALL_COVERED_PER_LINE, functionCallCounters.toCoveredMap());
+        fields.put(FUNCTION_CALL_MISSED_PER_LINE, functionCallCounters.toMissedMap());
+        fields.put(MUTATIONS, mutations);
+        fields.put(MODIFIED_LINES, new TreeSet<>(modifiedLines.toLineSet()));
+        fields.put(MODIFIED_LINE_INTERVALS, modifiedLines.toIntervals());
+        fields.put(INDIRECT_COVERAGE_CHANGES, indirectCoverageChanges);
+        fields.put(COVERAGE_DELTA, coverageDelta);
+        fields.put(RELATIVE_PATH, relativePath);
+        output.writeFields();
+    }
+
+    @Serial
+    @SuppressWarnings("unchecked")
+    private void readObject(final ObjectInputStream input) throws IOException, ClassNotFoundException {
+        var fields = input.readFields();
+        var runs = (int[]) fields.get(LINE_COVERAGE_RUNS, null);
+        lineCounters = runs == null ? readCounters(fields, COVERED_PER_LINE, MISSED_PER_LINE) : LineCounters.fromRuns(runs);
+        mcdcPairCounters = readCounters(fields, MCDC_PAIR_COVERED_PER_LINE, MCDC_PAIR_MISSED_PER_LINE);
+        functionCallCounters = readCounters(fields, FUNCTION_CALL_COVERED_PER_LINE, FUNCTION_CALL_MISSED_PER_LINE);
+        mutations = (List<Mutation>) fields.get(MUTATIONS, new ArrayList<>());
+        var intervals = (int[]) fields.get(MODIFIED_LINE_INTERVALS, null);
+        modifiedLines = intervals == null
+                ? readModifiedLines((SortedSet<Integer>) fields.get(MODIFIED_LINES, new TreeSet<>()))
+                : LineIntervals.fromIntervals(intervals);
+        indirectCoverageChanges = (NavigableMap<Integer, Integer>) fields.get(INDIRECT_COVERAGE_CHANGES, new TreeMap<>());
+        coverageDelta = (NavigableMap<Metric, Value>) fields.get(COVERAGE_DELTA, new TreeMap<>());
+        relativePath = (TreeString) fields.get(RELATIVE_PATH, null);
+    }
+
+    private LineIntervals readModifiedLines(final SortedSet<Integer> lines) {
+        var intervals = new LineIntervals();
+        for (int line : lines) {
+            intervals.add(line);
+        }
+        return intervals;
+    }
+
+    @SuppressWarnings("unchecked")
+    private LineCounters readCounters(final ObjectInputStream.GetField fields,
+            final String coveredName, final String missedName) throws IOException {
+        // the MC/DC pair and function call counters are missing in old serializations
+        var covered = (NavigableMap<Integer, Integer>) fields.get(coveredName, new TreeMap<>());
+        var missed = (NavigableMap<Integer, Integer>) fields.get(missedName, new TreeMap<>());
+        return new LineCounters(covered, missed);
+    }
+
     /**
      * Called after deserialization to retain backward compatibility.
      *
@@ -103,35 +207,66 @@ public final class FileNode extends Node {
         if (relativePath == null) {
             relativePath = TreeString.valueOf(StringUtils.EMPTY);
         }
-        if (mcdcPairCoveredPerLine == null) {
-            mcdcPairCoveredPerLine = new TreeMap<>();
-        }
-        if (mcdcPairMissedPerLine == null) {
-            mcdcPairMissedPerLine = new TreeMap<>();
-        }
-        if (functionCallCoveredPerLine == null) {
-            functionCallCoveredPerLine = new TreeMap<>();
-        }
-        if (functionCallMissedPerLine == null) {
-            functionCallMissedPerLine = new TreeMap<>();
-        }
         return this;
     }
 
     @Override
-    public FileNode copy() {
-        var copy = new FileNode(getName(), relativePath);
+    NodeVisitor.VisitResult accept(final NodeVisitor visitor) {
+        return visitor.visitFile(this);
+    }
+
+    @Override
+    void freezeNode() {
+        compactLineCounters();
+        lineCounters.createViews();
+        mcdcPairCounters.createViews();
+        functionCallCounters.createViews();
+        getMutationIndex();
+    }
+
+    /**
+     * Chooses the representation of the counters per line that fits best to the lines of this file and releases all
+     * memory that is not required anymore. This method should be called after all counters have been added, e.g.,
+     * after a report has been parsed.
+     */
+    void compactLineCounters() {
+        lineCounters.compact();
+        mcdcPairCounters.compact();
+        functionCallCounters.compact();
+        summary = FileCoverageSummary.summarize(lineCounters, mcdcPairCounters, functionCallCounters);
+    }
+
+    /**
+     * Returns a summary of the line, branch, MC/DC pair, and function call counters of this file. The summary is
+     * cached until the counters of this file change.
+     *
+     * @return the summary of the counters
+     */
+    public FileCoverageSummary getSummary() {
+        var cached = summary;
+        if (cached == null) {
+            cached = FileCoverageSummary.summarize(lineCounters, mcdcPairCounters, functionCallCounters);
+            summary = cached;
+        }
+        return cached;
+    }
 
-        copy.coveredPerLine.putAll(coveredPerLine);
-        copy.missedPerLine.putAll(missedPerLine);
+    @SuppressWarnings("PMD.NullAssignment") // the summary will be recreated on demand
+    private void invalidateCounters() {
+        summary = null;
+        invalidateAggregatedValues();
+    }
 
-        copy.mcdcPairCoveredPerLine.putAll(mcdcPairCoveredPerLine);
-        copy.mcdcPairMissedPerLine.putAll(mcdcPairMissedPerLine);
+    @Override
+    public FileNode copy() {
+        var copy = new FileNode(getName(), relativePath);
 
-        copy.functionCallCoveredPerLine.putAll(functionCallCoveredPerLine);
-        copy.functionCallMissedPerLine.putAll(functionCallMissedPerLine);
+        copy.lineCounters = lineCounters.copy();
+        copy.mcdcPairCounters = mcdcPairCounters.copy();
+        copy.functionCallCounters = functionCallCounters.copy();
+        copy.summary = summary; // the summary is immutable
 
-        copy.modifiedLines.addAll(modifiedLines);
+        copy.modifiedLines = modifiedLines.copy();
 
         copy.mutations.addAll(mutations);
 
@@ -168,128 +303,139 @@ public final class FileNode extends Node {
         mergeCounters((FileNode) other);
     }
 
-    @SuppressWarnings("PMD.CognitiveComplexity")
+    /**
+     * Merges the counters of the other file into the counters of this file. The lines of both files are visited in a
+     * single sweep using cursors on the sorted counters, so no objects are created per line.
+     *
+     * @param otherFile
+     *         the file to merge
+     */
     private void mergeCounters(final FileNode otherFile) {
-        var lines = new TreeSet<Integer>();
-
-        lines.addAll(coveredPerLine.keySet());
-        lines.addAll(mcdcPairCoveredPerLine.keySet());
-        lines.addAll(functionCallCoveredPerLine.keySet());
-        lines.addAll(otherFile.coveredPerLine.keySet());
-
+        var lines = new CounterMerge(lineCounters, otherFile.lineCounters, Metric.BRANCH);
+        var mcdcPairs = new CounterMerge(mcdcPairCounters, otherFile.mcdcPairCounters, Metric.MCDC_PAIR);
+        var functionCalls = new CounterMerge(functionCallCounters, otherFile.functionCallCounters,
+                Metric.FUNCTION_CALL);
         var lineCoverage = new CoverageBuilder().withMetric(Metric.LINE).withCovered(0).withMissed(0);
-        var branchCoverage = new CoverageBuilder().withMetric(Metric.BRANCH).withCovered(0).withMissed(0);
-        var mcdcPairCoverage = new CoverageBuilder().withMetric(Metric.MCDC_PAIR).withCovered(0).withMissed(0);
-        var functionCallCoverage = new CoverageBuilder().withMetric(Metric.FUNCTION_CALL).withCovered(0).withMissed(0);
-
-        for (final int line : lines) {
-            var left = new CoverageMetricsValues(coveredPerLine.getOrDefault(line, 0), missedPerLine.getOrDefault(line, 0));
-            var leftMcdcPair = new CoverageMetricsValues(mcdcPairCoveredPerLine.getOrDefault(line, 0), mcdcPairMissedPerLine.getOrDefault(line, 0));
-            var leftFunctionCall = new CoverageMetricsValues(functionCallCoveredPerLine.getOrDefault(line, 0), functionCallMissedPerLine.getOrDefault(line, 0));
-            var right = new CoverageMetricsValues(otherFile.coveredPerLine.getOrDefault(line, 0), otherFile.missedPerLine.getOrDefault(line, 0));
-            var rightMcdcPair = new CoverageMetricsValues(otherFile.mcdcPairCoveredPerLine.getOrDefault(line, 0), otherFile.mcdcPairMissedPerLine.getOrDefault(line, 0));
-            var rightFunctionCall = new CoverageMetricsValues(otherFile.functionCallCoveredPerLine.getOrDefault(line, 0), otherFile.functionCallMissedPerLine.getOrDefault(line, 0));
-
-            // check for errors in branch, mcdc pair and function call coverages
-            if (left.totalsNotEqual(right)) {
-                if (left.noMissing() || right.noMissing()) {
-                    left.setCoveredFromMax(right);
-                    left.clearMissed();
-                    left.setTotalFromCovered();
-                }
-                else {
-                    throw new IllegalArgumentException(
-                            String.format(Locale.ENGLISH, "Cannot merge coverage information for line %d in %s",
-                                    line, this));
-                }
-            }
-            else if (leftMcdcPair.totalsNotEqual(rightMcdcPair) || leftFunctionCall.totalsNotEqual(rightFunctionCall)) {
-                throw new IllegalArgumentException(
-                        String.format(Locale.ENGLISH, "Cannot merge coverage information for line %d in %s",
-                                line, this));
-            }
 
-            if (left.hasAnyInfo()) {
-                // exact branch coverage cannot be computed, so choose the higher value
-                mergeLeftRight(line, left.getCovered(), left.getMissed(), right.getCovered(), right.getMissed(), coveredPerLine, missedPerLine);
-                updateLineCoverage(line, lineCoverage);
-                updateBranchCoverage(line, branchCoverage);
-            }
-            else if (leftMcdcPair.hasAnyInfo()) {
-                mergeLeftRight(line, leftMcdcPair.getCovered(), leftMcdcPair.getMissed(),
-                        rightMcdcPair.getCovered(), rightMcdcPair.getMissed(),
-                        mcdcPairCoveredPerLine, mcdcPairMissedPerLine);
-                updateMcdcPairCoverage(line, mcdcPairCoverage);
-            }
-            else if (leftFunctionCall.hasAnyInfo()) {
-                mergeLeftRight(line, leftFunctionCall.getCovered(), leftFunctionCall.getMissed(), rightFunctionCall.getCovered(), rightFunctionCall.getMissed(), functionCallCoveredPerLine, functionCallMissedPerLine);
-                updateFunctionCallCoverage(line, functionCallCoverage);
-            }
-            else {
-                coveredPerLine.put(line, left.getMaxCovered(right));
-                missedPerLine.put(line, left.getMinMissed(right));
+        for (long next = nextLine(Integer.MIN_VALUE - 1L, lines, mcdcPairs, functionCalls);
+                next != LineCounters.Cursor.NO_LINE;
+                next = nextLine(next, lines, mcdcPairs, functionCalls)) {
+            var line = (int) next;
 
-                updateLineCoverage(line, lineCoverage);
-            }
-        }
+            lines.read(line);
+            mcdcPairs.read(line);
+            functionCalls.read(line);
 
-        setValues(lineCoverage, branchCoverage, mcdcPairCoverage, functionCallCoverage);
+            verifyTotals(line, lines, mcdcPairs, functionCalls);
+            mergeLine(line, lines, mcdcPairs, functionCalls, lineCoverage);
+        }
 
-        otherFile.getValues().stream()
-                .filter(value -> value.getMetric() == Metric.CYCLOMATIC_COMPLEXITY)
-                .forEach(this::addValue);
-    }
+        lineCounters = lines.getMerged();
+        mcdcPairCounters = mcdcPairs.getMerged();
+        functionCallCounters = functionCalls.getMerged();
+        compactLineCounters();
 
-    private void setValues(final CoverageBuilder lineCoverage, final CoverageBuilder branchCoverage, final CoverageBuilder mcdcPairCoverage, final CoverageBuilder functionCallCoverage) {
-        var lineValue = lineCoverage.build();
-        if (lineValue.isSet()) {
-            addValue(lineValue);
-        }
-        var branchValue = branchCoverage.build();
-        if (branchValue.isSet()) {
-            addValue(branchValue);
-        }
+        setValues(lineCoverage, lines.getCoverage(), mcdcPairs.getCoverage(), functionCalls.getCoverage());
 
-        var mcdcPairValue = mcdcPairCoverage.build();
-        if (mcdcPairValue.isSet()) {
-            addValue(mcdcPairValue);
+        var complexity = otherFile.getLocalValue(Metric.CYCLOMATIC_COMPLEXITY);
+        if (complexity != null) {
+            addValue(complexity);
         }
+    }
 
-        var functionCallValue = functionCallCoverage.build();
-        if (functionCallValue.isSet()) {
-            addValue(functionCallValue);
-        }
+    /**
+     * Returns the smallest line after the specified line that needs to be merged. The lines of this file with line,
+     * MC/DC pair, or function call counters and the lines of the other file with line counters are merged.
+     *
+     * @param previous
+     *         the previously merged line
+     * @param lines
+     *         the merge of the line counters
+     * @param mcdcPairs
+     *         the merge of the MC/DC pair counters
+     * @param functionCalls
+     *         the merge of the function call counters
+     *
+     * @return the next line to merge, or {@link LineCounters.Cursor#NO_LINE} if all lines have been merged
+     */
+    private long nextLine(final long previous, final CounterMerge lines, final CounterMerge mcdcPairs,
+            final CounterMerge functionCalls) {
+        return Math.min(Math.min(lines.moveLeft(previous + 1), mcdcPairs.moveLeft(previous + 1)),
+                Math.min(functionCalls.moveLeft(previous + 1), lines.moveRight(previous + 1)));
     }
 
-    private void mergeLeftRight(final int line, final int leftCovered, final int leftMissed, final int rightCovered, final int rightMissed,
-            final NavigableMap<Integer, Integer> localCoveredPerLine, final NavigableMap<Integer, Integer> localMissedPerLine) {
-        if (leftCovered > rightCovered) {
-            localCoveredPerLine.put(line, leftCovered);
-            localMissedPerLine.put(line, leftMissed);
+    /**
+     * Verifies that the totals of the counters of both files are equal for the specified line. Different totals of
+     * the line counters are accepted if one of the files has covered all branches of the line.
+     *
+     * @param line
+     *         the line to verify
+     * @param lines
+     *         the merge of the line counters
+     * @param mcdcPairs
+     *         the merge of the MC/DC pair counters
+     * @param functionCalls
+     *         the merge of the function call counters
+     *
+     * @throws IllegalArgumentException
+     *         if the counters of the line cannot be merged
+     */
+    private void verifyTotals(final int line, final CounterMerge lines, final CounterMerge mcdcPairs,
+            final CounterMerge functionCalls) {
+        // check for errors in branch, mcdc pair and function call coverages
+        if (lines.hasDifferentTotals()) {
+            if (!lines.isFullyCoveredOnOneSide()) {
+                throw createMergeException(line);
+            }
+            lines.useMaximumTotalAsCovered();
         }
-        else {
-            localCoveredPerLine.put(line, rightCovered);
-            localMissedPerLine.put(line, rightMissed);
+        else if (mcdcPairs.hasDifferentTotals() || functionCalls.hasDifferentTotals()) {
+            throw createMergeException(line);
         }
     }
 
-    private void updateBranchCoverage(final int line, final CoverageBuilder branchCoverage) {
-        branchCoverage.incrementCovered(getCoveredOfLine(line));
-        branchCoverage.incrementMissed(getMissedOfLine(line));
+    private IllegalArgumentException createMergeException(final int line) {
+        return new IllegalArgumentException(
+                String.format(Locale.ENGLISH, "Cannot merge coverage information for line %d in %s", line, this));
     }
 
-    private void updateMcdcPairCoverage(final int line, final CoverageBuilder mcdcPairCoverage) {
-        mcdcPairCoverage.incrementCovered(getMcdcPairCoveredOfLine(line));
-        mcdcPairCoverage.incrementMissed(getMcdcPairMissedOfLine(line));
+    private void mergeLine(final int line, final CounterMerge lines, final CounterMerge mcdcPairs,
+            final CounterMerge functionCalls, final CoverageBuilder lineCoverage) {
+        if (lines.hasAnyInfo()) {
+            // exact branch coverage cannot be computed, so choose the higher value
+            updateLineCoverage(lines.mergeHigherCoverage(line), lineCoverage);
+            mcdcPairs.copyLeft(line);
+            functionCalls.copyLeft(line);
+        }
+        else if (mcdcPairs.hasAnyInfo()) {
+            mcdcPairs.mergeHigherCoverage(line);
+            lines.copyLeft(line);
+            functionCalls.copyLeft(line);
+        }
+        else if (functionCalls.hasAnyInfo()) {
+            functionCalls.mergeHigherCoverage(line);
+            lines.copyLeft(line);
+            mcdcPairs.copyLeft(line);
+        }
+        else {
+            updateLineCoverage(lines.mergeLineCoverage(line), lineCoverage);
+            mcdcPairs.copyLeft(line);
+            functionCalls.copyLeft(line);
+        }
     }
 
-    private void updateFunctionCallCoverage(final int line, final CoverageBuilder functionCallCoverage) {
-        functionCallCoverage.incrementCovered(getFunctionCallCoveredOfLine(line));
-        functionCallCoverage.incrementMissed(getFunctionCallMissedOfLine(line));
+    private void setValues(final CoverageBuilder lineCoverage, final CoverageBuilder branchCoverage,
+            final CoverageBuilder mcdcPairCoverage, final CoverageBuilder functionCallCoverage) {
+        for (CoverageBuilder builder : List.of(lineCoverage, branchCoverage, mcdcPairCoverage, functionCallCoverage)) {
+            var value = builder.build();
+            if (value.isSet()) {
+                addValue(value);
+            }
+        }
     }
 
-    private void updateLineCoverage(final int line, final CoverageBuilder lineCoverage) {
-        if (getCoveredOfLine(line) > 0) {
+    private void updateLineCoverage(final int covered, final CoverageBuilder lineCoverage) {
+        if (covered > 0) {
             lineCoverage.incrementCovered();
         }
         else {
@@ -297,8 +443,14 @@ public final class FileNode extends Node {
         }
     }
 
+    /**
+     * Returns the lines that have been modified in the active change set. The returned set is a read-only view that is
+     * created from the intervals of the modified lines.
+     *
+     * @return the modified lines
+     */
     public SortedSet<Integer> getModifiedLines() {
-        return new TreeSet<>(modifiedLines);
+        return modifiedLines.toLineSet();
     }
 
     /**
@@ -330,11 +482,34 @@ public final class FileNode extends Node {
      *         the modified code lines
      */
     public void addModifiedLines(final int... lines) {
+        ensureMutable();
+
         for (int line : lines) {
             modifiedLines.add(line);
         }
     }
 
+    /**
+     * Marks all lines of the specified range as being modified.
+     *
+     * @param from
+     *         the first modified line
+     * @param to
+     *         the last modified line (inclusive)
+     *
+     * @throws IllegalArgumentException
+     *         if the first line is greater than the last line
+     */
+    public void addModifiedLineRange(final int from, final int to) {
+        ensureMutable();
+
+        if (from > to) {
+            throw new IllegalArgumentException(
+                    String.format(Locale.ENGLISH, "Invalid range of modified lines: %d - %d", from, to));
+        }
+        modifiedLines.addRange(from, to);
+    }
+
     @Override
     protected Optional<Node> filterTreeByModifiedLines() {
         if (!hasCoveredAndModifiedLines()) {
@@ -342,7 +517,7 @@ public final class FileNode extends Node {
         }
 
         var copy = new FileNode(getName(), relativePath);
-        copy.modifiedLines.addAll(modifiedLines);
+        copy.modifiedLines = modifiedLines.copy();
 
         filterLineAndBranchCoverage(copy);
         filterMutations(copy);
@@ -351,29 +526,30 @@ public final class FileNode extends Node {
     }
 
     private void filterLineAndBranchCoverage(final FileNode copy) {
-        var lineCoverage = Coverage.nullObject(Metric.LINE);
-        var lineBuilder = new CoverageBuilder().withMetric(Metric.LINE);
-        var branchCoverage = Coverage.nullObject(Metric.BRANCH);
-        var branchBuilder = new CoverageBuilder().withMetric(Metric.BRANCH);
-        for (int line : getCoveredAndModifiedLines()) {
-            var covered = coveredPerLine.getOrDefault(line, 0);
-            var missed = missedPerLine.getOrDefault(line, 0);
-            var total = covered + missed;
+        var lineCoverage = new CoverageBuilder().withMetric(Metric.LINE).withCovered(0).withMissed(0);
+        var branchCoverage = new CoverageBuilder().withMetric(Metric.BRANCH).withCovered(0).withMissed(0);
+        lineCounters.forEachIn(modifiedLines, (line, covered, missed) -> {
             copy.addCounters(line, covered, missed);
-            if (total == 0) {
-                throw new IllegalArgumentException("No coverage for line " + line);
-            }
-            else if (total == 1) {
-                lineCoverage = lineCoverage.add(lineBuilder.withCovered(covered).withMissed(missed).build());
-            }
-            else {
-                var branchCoveredAsLine = covered > 0 ? 1 : 0;
-                lineCoverage = lineCoverage.add(
-                        lineBuilder.withCovered(branchCoveredAsLine).withMissed(1 - branchCoveredAsLine).build());
-                branchCoverage = branchCoverage.add(branchBuilder.withCovered(covered).withMissed(missed).build());
-            }
+            updateLineAndBranchCoverage(line, covered, missed, lineCoverage, branchCoverage);
+        });
+        addLineAndBranchCoverage(copy, lineCoverage.build(), branchCoverage.build());
+    }
+
+    private void updateLineAndBranchCoverage(final int line, final int covered, final int missed,
+            final CoverageBuilder lineCoverage, final CoverageBuilder branchCoverage) {
+        var total = covered + missed;
+        if (total == 0) {
+            throw new IllegalArgumentException("No coverage for line " + line);
+        }
+        else if (total == 1) {
+            lineCoverage.incrementCovered(covered);
+            lineCoverage.incrementMissed(missed);
+        }
+        else {
+            updateLineCoverage(covered, lineCoverage);
+            branchCoverage.incrementCovered(covered);
+            branchCoverage.incrementMissed(missed);
         }
-        addLineAndBranchCoverage(copy, lineCoverage, branchCoverage);
     }
 
     private void filterMutations(final FileNode copy) {
@@ -460,6 +636,8 @@ public final class FileNode extends Node {
      *         The delta of the coverage hits before and after the code changes
      */
     public void addIndirectCoverageChange(final int line, final int hitsDelta) {
+        ensureMutable();
+
         indirectCoverageChanges.put(line, hitsDelta);
     }
 
@@ -469,7 +647,7 @@ public final class FileNode extends Node {
 
     // TODO: the API does not work yet for mutations
     public NavigableSet<Integer> getLinesWithCoverage() {
-        return new TreeSet<>(coveredPerLine.keySet());
+        return new TreeSet<>(lineCounters.getInstrumentedLines());
     }
 
     /**
@@ -481,7 +659,7 @@ public final class FileNode extends Node {
      * @return {@code true} if this file has a coverage result for the specified line, {@code false} otherwise
      */
     public boolean hasCoverageForLine(final int line) {
-        return coveredPerLine.containsKey(line) ||  mcdcPairCoveredPerLine.containsKey(line) ||  functionCallCoveredPerLine.containsKey(line);
+        return lineCounters.contains(line) || mcdcPairCounters.contains(line) || functionCallCounters.contains(line);
     }
 
     private Coverage getLineCoverage(final int line) {
@@ -532,6 +710,8 @@ public final class FileNode extends Node {
      */
     // TODO: wouldn't it make more sense to return an independent object?
     public void computeDelta(final FileNode referenceFile) {
+        ensureMutable();
+
         NavigableMap<Metric, Value> referenceCoverage = referenceFile.getMetricsDistribution();
         getMetricsDistribution().forEach((metric, value) -> {
             if (referenceCoverage.containsKey(metric)) {
@@ -571,8 +751,8 @@ public final class FileNode extends Node {
      * @return the lines with code coverage that also have been modified
      */
     public SortedSet<Integer> getCoveredAndModifiedLines() {
-        SortedSet<Integer> coveredDelta = getLinesWithCoverage();
-        coveredDelta.retainAll(getModifiedLines());
+        SortedSet<Integer> coveredDelta = new TreeSet<>();
+        lineCounters.forEachIn(modifiedLines, (line, covered, missed) -> coveredDelta.add(line));
         return coveredDelta;
     }
 
@@ -583,7 +763,11 @@ public final class FileNode extends Node {
      *         otherwise.
      */
     public boolean hasCoveredAndModifiedLines() {
-        return !getCoveredAndModifiedLines().isEmpty();
+        if (modifiedLines.isEmpty() || !getSummary().overlaps(modifiedLines.getStart(0),
+                modifiedLines.getEnd(modifiedLines.getIntervalCount() - 1))) {
+            return false;
+        }
+        return lineCounters.containsAny(modifiedLines);
     }
 
     /**
@@ -600,8 +784,33 @@ public final class FileNode extends Node {
      */
     @CanIgnoreReturnValue
     public FileNode addCounters(final int lineNumber, final int covered, final int missed) {
-        coveredPerLine.put(lineNumber, covered);
-        missedPerLine.put(lineNumber, missed);
+        ensureMutable();
+
+        lineCounters.put(lineNumber, covered, missed);
+        invalidateCounters();
+
+        return this;
+    }
+
+    /**
+     * Adds all counters of the specified batch. Existing counters of the lines will be replaced. The counters of the
+     * batch are sorted and merged with the existing counters in a single pass. Afterward, the batch is cleared so that
+     * it can be reused for the next file.
+     *
+     * @param batch
+     *         the batch with the line, MCDC pair, and function call counters
+     *
+     * @return this instance
+     */
+    @CanIgnoreReturnValue
+    public FileNode addCounters(final LineCounterBatch batch) {
+        ensureMutable();
+
+        if (!batch.isEmpty()) {
+            batch.addTo(lineCounters, mcdcPairCounters, functionCallCounters);
+            batch.clear();
+            invalidateCounters();
+        }
 
         return this;
     }
@@ -620,8 +829,10 @@ public final class FileNode extends Node {
      */
     @CanIgnoreReturnValue
     public FileNode addMcdcPairCounters(final int lineNumber, final int covered, final int missed) {
-        mcdcPairCoveredPerLine.put(lineNumber, covered);
-        mcdcPairMissedPerLine.put(lineNumber, missed);
+        ensureMutable();
+
+        mcdcPairCounters.put(lineNumber, covered, missed);
+        invalidateCounters();
 
         return this;
     }
@@ -640,34 +851,124 @@ public final class FileNode extends Node {
      */
     @CanIgnoreReturnValue
     public FileNode addFunctionCallCounters(final int lineNumber, final int covered, final int missed) {
-        functionCallCoveredPerLine.put(lineNumber, covered);
-        functionCallMissedPerLine.put(lineNumber, missed);
+        ensureMutable();
+
+        functionCallCounters.put(lineNumber, covered, missed);
+        invalidateCounters();
 
         return this;
     }
 
+    /**
+     * Returns a read-only view of the lines with coverage counters in ascending order. The elements of the views
+     * returned by {@link #getCoveredCounterView()} and {@link #getMissedCounterView()} correspond to these lines. The
+     * views are backed by arrays that are cached until the counters change, so calling these methods repeatedly does
+     * not copy the counters.
+     *
+     * @return the lines with coverage counters
+     */
+    public IntBuffer getLineNumbers() {
+        return lineCounters.getLineView();
+    }
+
+    /**
+     * Returns a read-only view of the number of covered items of the lines returned by {@link #getLineNumbers()}.
+     *
+     * @return the number of covered items per line
+     */
+    public IntBuffer getCoveredCounterView() {
+        return lineCounters.getCoveredView();
+    }
+
+    /**
+     * Returns a read-only view of the number of missed items of the lines returned by {@link #getLineNumbers()}.
+     *
+     * @return the number of missed items per line
+     */
+    public IntBuffer getMissedCounterView() {
+        return lineCounters.getMissedView();
+    }
+
+    /**
+     * Returns a read-only view of the lines with MCDC pair counters in ascending order.
+     *
+     * @return the lines with MCDC pair counters
+     */
+    public IntBuffer getMcdcPairLineNumbers() {
+        return mcdcPairCounters.getLineView();
+    }
+
+    /**
+     * Returns a read-only view of the number of covered MCDC pairs of the lines returned by
+     * {@link #getMcdcPairLineNumbers()}.
+     *
+     * @return the number of covered MCDC pairs per line
+     */
+    public IntBuffer getMcdcPairCoveredCounterView() {
+        return mcdcPairCounters.getCoveredView();
+    }
+
+    /**
+     * Returns a read-only view of the number of missed MCDC pairs of the lines returned by
+     * {@link #getMcdcPairLineNumbers()}.
+     *
+     * @return the number of missed MCDC pairs per line
+     */
+    public IntBuffer getMcdcPairMissedCounterView() {
+        return mcdcPairCounters.getMissedView();
+    }
+
+    /**
+     * Returns a read-only view of the lines with function call counters in ascending order.
+     *
+     * @return the lines with function call counters
+     */
+    public IntBuffer getFunctionCallLineNumbers() {
+        return functionCallCounters.getLineView();
+    }
+
+    /**
+     * Returns a read-only view of the number of covered function calls of the lines returned by
+     * {@link #getFunctionCallLineNumbers()}.
+     *
+     * @return the number of covered function calls per line
+     */
+    public IntBuffer getFunctionCallCoveredCounterView() {
+        return functionCallCounters.getCoveredView();
+    }
+
+    /**
+     * Returns a read-only view of the number of missed function calls of the lines returned by
+     * {@link #getFunctionCallLineNumbers()}.
+     *
+     * @return the number of missed function calls per line
+     */
+    public IntBuffer getFunctionCallMissedCounterView() {
+        return functionCallCounters.getMissedView();
+    }
+
     public int[] getCoveredCounters() {
-        return entriesToArray(coveredPerLine);
+        return lineCounters.getCoveredCounters();
     }
 
     public int[] getMissedCounters() {
-        return entriesToArray(missedPerLine);
+        return lineCounters.getMissedCounters();
     }
 
     public int[] getMcdcPairCoveredCounters() {
-        return entriesToArray(mcdcPairCoveredPerLine);
+        return mcdcPairCounters.getCoveredCounters();
     }
 
     public int[] getMcdcPairMissedCounters() {
-        return entriesToArray(mcdcPairMissedPerLine);
+        return mcdcPairCounters.getMissedCounters();
     }
 
     public int[] getFunctionCallCoveredCounters() {
-        return entriesToArray(functionCallCoveredPerLine);
+        return functionCallCounters.getCoveredCounters();
     }
 
     public int[] getFunctionCallMissedCounters() {
-        return entriesToArray(functionCallMissedPerLine);
+        return functionCallCounters.getMissedCounters();
     }
 
     /**
@@ -679,7 +980,7 @@ public final class FileNode extends Node {
      * @return the number of covered items for the specified line
      */
     public int getCoveredOfLine(final int line) {
-        return coveredPerLine.getOrDefault(line, 0);
+        return lineCounters.getCovered(line);
     }
 
     /**
@@ -691,7 +992,7 @@ public final class FileNode extends Node {
      * @return the number of covered items for the specified line
      */
     private int getMcdcPairCoveredOfLine(final int line) {
-        return mcdcPairCoveredPerLine.getOrDefault(line, 0);
+        return mcdcPairCounters.getCovered(line);
     }
 
     /**
@@ -703,7 +1004,7 @@ public final class FileNode extends Node {
      * @return the number of covered items for the specified line
      */
     private int getFunctionCallCoveredOfLine(final int line) {
-        return functionCallCoveredPerLine.getOrDefault(line, 0);
+        return functionCallCounters.getCovered(line);
     }
 
     /**
@@ -715,7 +1016,7 @@ public final class FileNode extends Node {
      * @return the number of covered items for the specified line
      */
     private int getMcdcPairMissedOfLine(final int line) {
-        return mcdcPairMissedPerLine.getOrDefault(line, 0);
+        return mcdcPairCounters.getMissed(line);
     }
 
     /**
@@ -727,7 +1028,7 @@ public final class FileNode extends Node {
      * @return the number of covered items for the specified line
      */
     private int getFunctionCallMissedOfLine(final int line) {
-        return functionCallMissedPerLine.getOrDefault(line, 0);
+        return functionCallCounters.getMissed(line);
     }
 
     /**
@@ -739,35 +1040,27 @@ public final class FileNode extends Node {
      * @return the number of missed items for the specified line
      */
     public int getMissedOfLine(final int line) {
-        return missedPerLine.getOrDefault(line, 0);
-    }
-
-    private int[] entriesToArray(final NavigableMap<Integer, Integer> map) {
-        return map.values().stream().mapToInt(i -> i).toArray();
+        return lineCounters.getMissed(line);
     }
 
     /**
-     * Returns all instrumented lines that are not executed during the tests.
+     * Returns all instrumented lines that are not executed during the tests. The returned set is an unmodifiable view
+     * of a bitmap that is cached until the counters of this file change.
      *
      * @return the missed lines
      */
     public NavigableSet<Integer> getMissedLines() {
-        return filterLines(line -> getCoveredOfLine(line) == 0);
+        return lineCounters.getMissedLines();
     }
 
     /**
-     * Returns all lines containing at least one executed instruction.
+     * Returns all lines containing at least one executed instruction. The returned set is an unmodifiable view of a
+     * bitmap that is cached until the counters of this file change.
      *
      * @return the fully or partially covered lines
      */
     public NavigableSet<Integer> getCoveredLines() {
-        return filterLines(line -> getCoveredOfLine(line) != 0);
-    }
-
-    private NavigableSet<Integer> filterLines(final Predicate<Integer> predicate) {
-        return coveredPerLine.keySet().stream()
-                .filter(predicate)
-                .collect(Collectors.toCollection(TreeSet::new));
+        return lineCounters.getCoveredLines();
     }
 
     /**
@@ -778,69 +1071,86 @@ public final class FileNode extends Node {
      */
     @SuppressWarnings("PMD.LooseCoupling")
     public LineRangeList getMissedLineRanges() {
-        var lineRanges = new LineRangeList();
-
-        var missedLines = getMissedLines();
-        if (missedLines.isEmpty()) {
-            return lineRanges;
-        }
-
-        if (missedLines.size() == 1) {
-            lineRanges.add(new LineRange(missedLines.first()));
-
-            return lineRanges;
-        }
-
-        var lines = List.copyOf(getLinesWithCoverage());
-
-        int start = UNSET;
-        int end = UNSET;
-
-        for (int line : lines) {
-            if (getCoveredOfLine(line) == 0) {
-                if (start == UNSET) {
-                    start = line;
-                }
-                end = line;
-            }
-            else {
-                if (start != UNSET) {
-                    lineRanges.add(new LineRange(start, end));
-                    start = UNSET;
-                }
-            }
-        }
-        if (start != UNSET) {
-            lineRanges.add(new LineRange(start, end));
-        }
-
-        return lineRanges;
+        return lineCounters.getMissedLineRanges();
     }
 
     /**
      * Returns all lines that contain survived mutations. The returned map contains the line number as the key and a
-     * list of survived mutations as value.
+     * list of survived mutations as value. The returned map is an unmodifiable view that is cached until the
+     * mutations of this file change.
      *
      * @return the lines that have survived mutations
      */
     public NavigableMap<Integer, List<Mutation>> getSurvivedMutationsPerLine() {
-        return createMapOfMutations(Mutation::hasSurvived);
+        return getMutationIndex().getSurvivedMutationsPerLine();
     }
 
     /**
      * Returns the lines that contain mutations. The returned map contains the line number as the key and a list of
-     * mutations as value.
+     * mutations as value. The returned map is an unmodifiable view that is cached until the mutations of this file
+     * change.
      *
      * @return the lines that have no line coverage
      */
     public NavigableMap<Integer, List<Mutation>> getMutationsPerLine() {
-        return createMapOfMutations(b -> true);
+        return getMutationIndex().getMutationsPerLine();
     }
 
-    private NavigableMap<Integer, List<Mutation>> createMapOfMutations(final Predicate<Mutation> predicate) {
-        return getMutations().stream()
-                .filter(predicate)
-                .collect(Collectors.groupingBy(Mutation::getLine, TreeMap::new, Collectors.toList()));
+    /**
+     * Returns the mutations of the specified line.
+     *
+     * @param line
+     *         the line to get the mutations for
+     *
+     * @return the mutations of the line, or an empty list if the line has no mutations
+     */
+    public List<Mutation> getMutationsOfLine(final int line) {
+        return getMutationIndex().getMutations(line);
+    }
+
+    /**
+     * Returns the survived mutations of the specified line.
+     *
+     * @param line
+     *         the line to get the mutations for
+     *
+     * @return the survived mutations of the line, or an empty list if the line has no survived mutations
+     */
+    public List<Mutation> getSurvivedMutationsOfLine(final int line) {
+        return getMutationIndex().getSurvivedMutations(line);
+    }
+
+    /**
+     * Returns the number of killed mutations of the specified line.
+     *
+     * @param line
+     *         the line to get the number of mutations for
+     *
+     * @return the number of killed mutations
+     */
+    public int getKilledMutationCountOfLine(final int line) {
+        return getMutationIndex().getKilledCount(line);
+    }
+
+    /**
+     * Returns the number of survived mutations of the specified line.
+     *
+     * @param line
+     *         the line to get the number of mutations for
+     *
+     * @return the number of survived mutations
+     */
+    public int getSurvivedMutationCountOfLine(final int line) {
+        return getMutationIndex().getSurvivedCount(line);
+    }
+
+    private MutationIndex getMutationIndex() {
+        var cached = mutationIndex;
+        if (cached == null) {
+            cached = new MutationIndex(mutations);
+            mutationIndex = cached;
+        }
+        return cached;
     }
 
     /**
@@ -850,14 +1160,18 @@ public final class FileNode extends Node {
      * @return the mapping of not fully covered lines to the number of missed branches
      */
     public NavigableMap<Integer, Integer> getPartiallyCoveredLines() {
-        return getLinesWithCoverage().stream()
-                .filter(line -> getCoveredOfLine(line) > 0)
-                .filter(line -> getMissedOfLine(line) > 0)
-                .collect(Collectors.toMap(line -> line, missedPerLine::get, (a, b) -> a, TreeMap::new));
+        var partiallyCoveredLines = new TreeMap<Integer, Integer>();
+        if (getSummary().partiallyCoveredLines() == 0) {
+            return partiallyCoveredLines;
+        }
+        for (int line : lineCounters.getPartiallyCoveredLines()) {
+            partiallyCoveredLines.put(line, lineCounters.getMissed(line));
+        }
+        return partiallyCoveredLines;
     }
 
     public NavigableMap<Integer, Integer> getCounters() {
-        return Collections.unmodifiableNavigableMap(coveredPerLine);
+        return Collections.unmodifiableNavigableMap(lineCounters.toCoveredMap());
     }
 
     /**
@@ -867,8 +1181,12 @@ public final class FileNode extends Node {
      *         the mutation to add
      */
     // TODO: not part of API, only for tests?
+    @SuppressWarnings("PMD.NullAssignment") // the index will be recreated on demand
     public void addMutation(final Mutation mutation) {
+        ensureMutable();
+
         mutations.add(mutation);
+        mutationIndex = null;
     }
 
     @Override
@@ -897,7 +1215,11 @@ public final class FileNode extends Node {
      *         the relative path
      */
     public void setRelativePath(final TreeString relativePath) {
+        ensureMutable();
+
         this.relativePath = relativePath;
+
+        invalidateIndices();
     }
 
     @Override
@@ -912,12 +1234,9 @@ public final class FileNode extends Node {
             return false;
         }
         var fileNode = (FileNode) o;
-        return Objects.equals(coveredPerLine, fileNode.coveredPerLine)
-                && Objects.equals(missedPerLine, fileNode.missedPerLine)
-                && Objects.equals(mcdcPairCoveredPerLine, fileNode.mcdcPairCoveredPerLine)
-                && Objects.equals(mcdcPairMissedPerLine, fileNode.mcdcPairMissedPerLine)
-                && Objects.equals(functionCallCoveredPerLine, fileNode.functionCallCoveredPerLine)
-                && Objects.equals(functionCallMissedPerLine, fileNode.functionCallMissedPerLine)
+        return Objects.equals(lineCounters, fileNode.lineCounters)
+                && Objects.equals(mcdcPairCounters, fileNode.mcdcPairCounters)
+                && Objects.equals(functionCallCounters, fileNode.functionCallCounters)
                 && Objects.equals(mutations, fileNode.mutations)
                 && Objects.equals(modifiedLines, fileNode.modifiedLines)
                 && Objects.equals(indirectCoverageChanges, fileNode.indirectCoverageChanges)
@@ -927,8 +1246,8 @@ public final class FileNode extends Node {
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), coveredPerLine, missedPerLine, mutations, modifiedLines,
-                mcdcPairCoveredPerLine, mcdcPairMissedPerLine, functionCallCoveredPerLine, functionCallMissedPerLine,
+        return Objects.hash(super.hashCode(), lineCounters, mutations, modifiedLines,
+                mcdcPairCounters, functionCallCounters,
                 indirectCoverageChanges, coverageDelta, relativePath);
     }
 
@@ -936,4 +1255,84 @@ public final class FileNode extends Node {
     public boolean isAggregation() {
         return false;
     }
+
+    /**
+     * Merges the counters of one kind (lines, MC/DC pairs, or function calls) of two files. The counters of both files
+     * are read with cursors, the merged counters and the resulting coverage are collected in this instance.
+     */
+    private static final class CounterMerge {
+        private final LineCounters.Cursor left;
+        private final LineCounters.Cursor right;
+        private final CoverageMetricsValues leftValues = new CoverageMetricsValues(0, 0);
+        private final CoverageMetricsValues rightValues = new CoverageMetricsValues(0, 0);
+        private final LineCounters merged = new LineCounters();
+        private final CoverageBuilder coverage;
+
+        CounterMerge(final LineCounters leftCounters, final LineCounters rightCounters, final Metric metric) {
+            left = leftCounters.cursor();
+            right = rightCounters.cursor();
+            coverage = new CoverageBuilder().withMetric(metric).withCovered(0).withMissed(0);
+        }
+
+        long moveLeft(final long line) {
+            left.moveTo(line);
+            return left.getLine();
+        }
+
+        long moveRight(final long line) {
+            right.moveTo(line);
+            return right.getLine();
+        }
+
+        void read(final int line) {
+            leftValues.set(left.getCovered(line), left.getMissed(line));
+            rightValues.set(right.getCovered(line), right.getMissed(line));
+        }
+
+        boolean hasAnyInfo() {
+            return leftValues.hasAnyInfo();
+        }
+
+        boolean hasDifferentTotals() {
+            return leftValues.totalsNotEqual(rightValues);
+        }
+
+        boolean isFullyCoveredOnOneSide() {
+            return leftValues.noMissing() || rightValues.noMissing();
+        }
+
+        void useMaximumTotalAsCovered() {
+            leftValues.setCoveredFromMax(rightValues);
+            leftValues.clearMissed();
+            leftValues.setTotalFromCovered();
+        }
+
+        int mergeHigherCoverage(final int line) {
+            var chosen = leftValues.getCovered() > rightValues.getCovered() ? leftValues : rightValues;
+            merged.put(line, chosen.getCovered(), chosen.getMissed());
+            coverage.incrementCovered(chosen.getCovered());
+            coverage.incrementMissed(chosen.getMissed());
+            return chosen.getCovered();
+        }
+
+        int mergeLineCoverage(final int line) {
+            var covered = leftValues.getMaxCovered(rightValues);
+            merged.put(line, covered, leftValues.getMinMissed(rightValues));
+            return covered;
+        }
+
+        void copyLeft(final int line) {
+            if (left.moveTo(line)) {
+                merged.put(line, left.getCovered(line), left.getMissed(line));
+            }
+        }
+
+        LineCounters getMerged() {
+            return merged;
+        }
+
+        CoverageBuilder getCoverage() {
+            return coverage;
+        }
+    }
 }
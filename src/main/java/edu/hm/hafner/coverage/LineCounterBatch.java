@@ -0,0 +1,136 @@
+package edu.hm.hafner.coverage;
+
+import java.util.Arrays;
+
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+/**
+ * Collects the counters of the lines of a file in arrays of primitive integers. Parsers add the counters of each line
+ * while reading the report and then add the whole batch to the {@link FileNode} with
+ * {@link FileNode#addCounters(LineCounterBatch)} when the element of the file has been read completely. Then the line
+ * counters of the file are created in a single sorted pass rather than line by line.
+ *
+ * <p>
+ * The batch can be reused for the next file after it has been added to a file.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+public final class LineCounterBatch {
+    private final Column lineCounters = new Column();
+    private final Column mcdcPairCounters = new Column();
+    private final Column functionCallCounters = new Column();
+
+    /**
+     * Add the coverage counters for the specified line.
+     *
+     * @param lineNumber
+     *         the line number to add the counters for
+     * @param covered
+     *         the number of covered items
+     * @param missed
+     *         the number of missed items
+     *
+     * @return this instance
+     * @see FileNode#addCounters(int, int, int)
+     */
+    @CanIgnoreReturnValue
+    public LineCounterBatch addCounters(final int lineNumber, final int covered, final int missed) {
+        lineCounters.add(lineNumber, covered, missed);
+
+        return this;
+    }
+
+    /**
+     * Add the MCDC coverage counters for the specified line.
+     *
+     * @param lineNumber
+     *         the line number to add the counters for
+     * @param covered
+     *         the number of covered items
+     * @param missed
+     *         the number of missed items
+     *
+     * @return this instance
+     * @see FileNode#addMcdcPairCounters(int, int, int)
+     */
+    @CanIgnoreReturnValue
+    public LineCounterBatch addMcdcPairCounters(final int lineNumber, final int covered, final int missed) {
+        mcdcPairCounters.add(lineNumber, covered, missed);
+
+        return this;
+    }
+
+    /**
+     * Add the function call coverage counters for the specified line.
+     *
+     * @param lineNumber
+     *         the line number to add the counters for
+     * @param covered
+     *         the number of covered items
+     * @param missed
+     *         the number of missed items
+     *
+     * @return this instance
+     * @see FileNode#addFunctionCallCounters(int, int, int)
+     */
+    @CanIgnoreReturnValue
+    public LineCounterBatch addFunctionCallCounters(final int lineNumber, final int covered, final int missed) {
+        functionCallCounters.add(lineNumber, covered, missed);
+
+        return this;
+    }
+
+    /**
+     * Returns whether this batch contains no counters.
+     *
+     * @return {@code true} if this batch contains no counters, {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return lineCounters.size == 0 && mcdcPairCounters.size == 0 && functionCallCounters.size == 0;
+    }
+
+    /**
+     * Removes all counters from this batch. The allocated arrays will be reused for the next file.
+     */
+    public void clear() {
+        lineCounters.size = 0;
+        mcdcPairCounters.size = 0;
+        functionCallCounters.size = 0;
+    }
+
+    void addTo(final LineCounters lines, final LineCounters mcdcPairs, final LineCounters functionCalls) {
+        lineCounters.addTo(lines);
+        mcdcPairCounters.addTo(mcdcPairs);
+        functionCallCounters.addTo(functionCalls);
+    }
+
+    /**
+     * The lines and counters of one type of counters, stored in parallel arrays in the order of insertion.
+     */
+    private static final class Column {
+        private static final int MINIMUM_CAPACITY = 64;
+
+        private int[] lines = new int[0];
+        private int[] covered = new int[0];
+        private int[] missed = new int[0];
+        private int size;
+
+        void add(final int line, final int coveredItems, final int missedItems) {
+            if (size == lines.length) {
+                int capacity = Math.max(MINIMUM_CAPACITY, size + (size >> 1));
+                lines = Arrays.copyOf(lines, capacity);
+                covered = Arrays.copyOf(covered, capacity);
+                missed = Arrays.copyOf(missed, capacity);
+            }
+            lines[size] = line;
+            covered[size] = coveredItems;
+            missed[size] = missedItems;
+            size++;
+        }
+
+        void addTo(final LineCounters counters) {
+            counters.putAll(lines, covered, missed, size);
+        }
+    }
+}
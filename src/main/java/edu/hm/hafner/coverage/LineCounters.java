@@ -0,0 +1,1242 @@
+package edu.hm.hafner.coverage;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import edu.hm.hafner.util.Ensure;
+import edu.hm.hafner.util.LineRange;
+import edu.hm.hafner.util.LineRangeList;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+
+/**
+ * Stores the number of covered and missed items for each line of a file. The counters are stored in arrays of
+ * primitive integers: this reduces the memory footprint considerably compared to maps with boxed keys and values.
+ *
+ * <p>
+ * The counters use one of three representations, depending on the distribution of the lines with counters:
+ * </p>
+ * <ul>
+ *     <li>The dense representation stores the counters in arrays that are indexed by the offset of a line from the
+ *     first line. Random access to the counters of a line is done in constant time. Most source files are instrumented
+ *     on a contiguous range of lines, so they use this representation.</li>
+ *     <li>The sparse representation stores the counters in parallel arrays that are sorted by the line number. Random
+ *     access to the counters of a line uses a binary search. Files with a few scattered lines use this
+ *     representation.</li>
+ *     <li>The run-length encoded representation stores runs of consecutive lines that have the same counters, e.g.,
+ *     long regions of lines that are covered by one item each. Each run is stored with its first line, its length,
+ *     and the counters of its lines. Random access to the counters of a line uses a binary search of the runs. Large
+ *     and well tested files use this representation. This representation is read-only: adding counters converts the
+ *     runs back into one of the other representations.</li>
+ * </ul>
+ *
+ * <p>
+ * The representation is chosen automatically whenever the arrays need to grow, and after parsing by calling
+ * {@link #compact()}. The run-length encoded representation is only chosen by {@link #compact()}. Adding the counters
+ * of lines in ascending order (which is the typical order of the coverage reports) just appends the counters in the
+ * dense and sparse representations.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+@SuppressWarnings({"PMD.GodClass", "PMD.CyclomaticComplexity"}) // the representations share the same operations
+final class LineCounters {
+    private static final int[] EMPTY = new int[0];
+    private static final int MINIMUM_CAPACITY = 8;
+    /** Marks the lines without counters in the dense representation. */
+    private static final int ABSENT = Integer.MIN_VALUE;
+    /** The number of integers that are required to store a run. */
+    private static final int RUN_SIZE = 4;
+    /** The number of integers that are required to store a line in the sparse representation. */
+    private static final int SPARSE_LINE_SIZE = 3;
+    /** The number of integers that are required to store a line in the dense representation. */
+    private static final int DENSE_LINE_SIZE = 2;
+    /**
+     * The maximum ratio of the span of the lines to the number of lines with counters that uses bitmaps for the line
+     * status. The four bitmaps require half a byte for each line of the span, so up to this ratio the bitmaps are
+     * smaller than the three integers of each line in the sparse representation.
+     */
+    private static final int MAXIMUM_BITMAP_RATIO = 16;
+
+    /**
+     * The sorted line numbers of the sparse representation, the sorted first lines of the runs of the run-length
+     * encoded representation, empty in the dense representation.
+     */
+    private int[] lines = EMPTY;
+    /** Determines whether the counters use the dense representation. */
+    private boolean dense;
+    /** The counters of the lines, or of the runs of the run-length encoded representation. */
+    private int[] covered = EMPTY;
+    private int[] missed = EMPTY;
+    /** The lengths of the runs of the run-length encoded representation, empty in the other representations. */
+    private int[] runLengths = EMPTY;
+    /** The number of runs of the run-length encoded representation. */
+    private int runCount;
+    /** The number of lines with counters. */
+    private int lineCount;
+    /** The line at index 0 of the dense representation. */
+    private int firstLine;
+    /** The last line with counters of the dense representation. */
+    private int lastLine;
+    /** The bitmaps of the line status, will be created on demand and cleared on changes. */
+    @CheckForNull
+    private Bitmaps bitmaps;
+    /** The lines and counters in the order of the lines, will be created on demand and cleared on changes. */
+    @CheckForNull
+    private Columns columns;
+
+    /**
+     * Creates a new empty instance.
+     */
+    LineCounters() {
+        // empty
+    }
+
+    /**
+     * Creates a new instance that contains the counters of the specified maps. The maps use the line number as key and
+     * the number of covered or missed items as value, respectively. Lines that are only part of one of the maps will
+     * use 0 for the missing counter.
+     *
+     * @param coveredPerLine
+     *         the number of covered items per line
+     * @param missedPerLine
+     *         the number of missed items per line
+     */
+    LineCounters(final NavigableMap<Integer, Integer> coveredPerLine, final NavigableMap<Integer, Integer> missedPerLine) {
+        var allLines = new TreeSet<>(coveredPerLine.keySet());
+        allLines.addAll(missedPerLine.keySet());
+
+        for (int line : allLines) {
+            put(line, coveredPerLine.getOrDefault(line, 0), missedPerLine.getOrDefault(line, 0));
+        }
+        compact();
+    }
+
+    private LineCounters(final LineCounters other) {
+        lines = Arrays.copyOf(other.lines, other.lines.length);
+        dense = other.dense;
+        covered = Arrays.copyOf(other.covered, other.covered.length);
+        missed = Arrays.copyOf(other.missed, other.missed.length);
+        runLengths = Arrays.copyOf(other.runLengths, other.runLengths.length);
+        runCount = other.runCount;
+        lineCount = other.lineCount;
+        firstLine = other.firstLine;
+        lastLine = other.lastLine;
+        bitmaps = other.bitmaps; // the bitmaps are immutable
+        columns = other.columns; // the columns are immutable
+    }
+
+    /**
+     * Returns a copy of this instance.
+     *
+     * @return the copy
+     */
+    LineCounters copy() {
+        return new LineCounters(this);
+    }
+
+    /**
+     * Returns whether the counters use the dense representation.
+     *
+     * @return {@code true} if the counters use the dense representation, {@code false} if the counters use the sparse
+     *         representation
+     */
+    boolean isDense() {
+        return dense;
+    }
+
+    /**
+     * Returns whether the counters use the run-length encoded representation.
+     *
+     * @return {@code true} if the counters use the run-length encoded representation, {@code false} otherwise
+     */
+    boolean isRunLengthEncoded() {
+        return runCount > 0;
+    }
+
+    /**
+     * Returns the number of lines with counters.
+     *
+     * @return the number of lines
+     */
+    int size() {
+        return lineCount;
+    }
+
+    /**
+     * Returns whether there are no lines with counters.
+     *
+     * @return {@code true} if there are no lines with counters, {@code false} otherwise
+     */
+    boolean isEmpty() {
+        return lineCount == 0;
+    }
+
+    /**
+     * Returns whether there are counters for the specified line.
+     *
+     * @param line
+     *         the line to check
+     *
+     * @return {@code true} if there are counters for the specified line, {@code false} otherwise
+     */
+    boolean contains(final int line) {
+        return indexOf(line) >= 0;
+    }
+
+    /**
+     * Returns the number of covered items for the specified line.
+     *
+     * @param line
+     *         the line to get the counter for
+     *
+     * @return the number of covered items, or 0 if there are no counters for the line
+     */
+    int getCovered(final int line) {
+        int index = indexOf(line);
+        return index >= 0 ? covered[index] : 0;
+    }
+
+    /**
+     * Returns the number of missed items for the specified line.
+     *
+     * @param line
+     *         the line to get the counter for
+     *
+     * @return the number of missed items, or 0 if there are no counters for the line
+     */
+    int getMissed(final int line) {
+        int index = indexOf(line);
+        return index >= 0 ? missed[index] : 0;
+    }
+
+    /**
+     * Invokes the specified consumer for the counters of each line, in the order of the line numbers.
+     *
+     * @param consumer
+     *         the consumer to invoke
+     */
+    void forEach(final LineCounterConsumer consumer) {
+        if (isRunLengthEncoded()) {
+            forEachRun(consumer);
+        }
+        else if (isDense()) {
+            forEachDense(consumer);
+        }
+        else {
+            for (int i = 0; i < lineCount; i++) {
+                consumer.accept(lines[i], covered[i], missed[i]);
+            }
+        }
+    }
+
+    private void forEachRun(final LineCounterConsumer consumer) {
+        for (int run = 0; run < runCount; run++) {
+            for (int line = lines[run]; line < lines[run] + runLengths[run]; line++) {
+                consumer.accept(line, covered[run], missed[run]);
+            }
+        }
+    }
+
+    private void forEachDense(final LineCounterConsumer consumer) {
+        for (int offset = 0; offset <= lastLine - firstLine && lineCount > 0; offset++) {
+            if (covered[offset] != ABSENT) {
+                consumer.accept(firstLine + offset, covered[offset], missed[offset]);
+            }
+        }
+    }
+
+    /**
+     * Returns a new cursor that visits the lines with counters in ascending order. The counters must not be changed
+     * while the cursor is in use.
+     *
+     * @return the cursor, positioned at the first line
+     */
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Invokes the consumer for the counters of each line that is part of the specified intervals, in ascending order
+     * of the lines. The intervals and the lines with counters are intersected in a single merge-join sweep.
+     *
+     * @param intervals
+     *         the intervals of the lines to visit
+     * @param consumer
+     *         the consumer of the counters
+     */
+    void forEachIn(final LineIntervals intervals, final LineCounterConsumer consumer) {
+        var cursor = cursor();
+        for (int i = 0; i < intervals.getIntervalCount() && cursor.getLine() != Cursor.NO_LINE; i++) {
+            cursor.moveTo(intervals.getStart(i));
+            long end = intervals.getEnd(i);
+            for (long line = cursor.getLine(); line <= end; line = cursor.getLine()) {
+                consumer.accept((int) line, cursor.getCovered((int) line), cursor.getMissed((int) line));
+                cursor.moveTo(line + 1);
+            }
+        }
+    }
+
+    /**
+     * Returns whether there are counters for at least one line of the specified intervals.
+     *
+     * @param intervals
+     *         the intervals of the lines to check
+     *
+     * @return {@code true} if there are counters for a line of the intervals, {@code false} otherwise
+     */
+    boolean containsAny(final LineIntervals intervals) {
+        var cursor = cursor();
+        for (int i = 0; i < intervals.getIntervalCount() && cursor.getLine() != Cursor.NO_LINE; i++) {
+            cursor.moveTo(intervals.getStart(i));
+            if (cursor.getLine() <= intervals.getEnd(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sets the counters for the specified line. Existing counters of the line will be replaced.
+     *
+     * @param line
+     *         the line to set the counters for
+     * @param coveredItems
+     *         the number of covered items
+     * @param missedItems
+     *         the number of missed items
+     */
+    @SuppressWarnings("PMD.NullAssignment") // the bitmaps and columns will be recreated on demand
+    void put(final int line, final int coveredItems, final int missedItems) {
+        bitmaps = null;
+        columns = null;
+        if (isRunLengthEncoded()) {
+            convertToSparse();
+        }
+        if (isDense()) {
+            putDense(line, coveredItems, missedItems);
+        }
+        else {
+            putSparse(line, coveredItems, missedItems);
+        }
+    }
+
+    /**
+     * Sets the counters for all specified lines. Existing counters of the lines will be replaced. If a line is
+     * contained several times, then the last counters of the line will be used, just as if the counters had been added
+     * one by one with {@link #put(int, int, int)}. The lines are sorted and merged with the existing lines in a single
+     * pass, so the arrays are created only once.
+     *
+     * @param newLines
+     *         the lines to set the counters for, in any order
+     * @param newCovered
+     *         the number of covered items of the lines
+     * @param newMissed
+     *         the number of missed items of the lines
+     * @param count
+     *         the number of lines to use from the arrays
+     */
+    @SuppressWarnings("PMD.NullAssignment") // the bitmaps and columns will be recreated on demand
+    void putAll(final int[] newLines, final int[] newCovered, final int[] newMissed, final int count) {
+        if (count == 0) {
+            return;
+        }
+
+        bitmaps = null;
+        columns = null;
+        var sorted = new LineCounters();
+        sorted.lines = new int[count];
+        sorted.covered = new int[count];
+        sorted.missed = new int[count];
+        if (isAscending(newLines, count)) {
+            System.arraycopy(newLines, 0, sorted.lines, 0, count);
+            System.arraycopy(newCovered, 0, sorted.covered, 0, count);
+            System.arraycopy(newMissed, 0, sorted.missed, 0, count);
+            sorted.lineCount = count;
+        }
+        else {
+            sorted.fillSorted(newLines, newCovered, newMissed, count);
+        }
+
+        if (isEmpty()) {
+            lines = sorted.lines;
+            dense = false;
+            covered = sorted.covered;
+            missed = sorted.missed;
+            lineCount = sorted.lineCount;
+            runLengths = EMPTY;
+            runCount = 0;
+        }
+        else {
+            convertToSparse();
+            mergeSorted(sorted);
+        }
+        if (isDenseEnough(lineCount, lines[0], lines[lineCount - 1], 2)) {
+            convertToDense(lines[0], lines[lineCount - 1]);
+        }
+    }
+
+    private static boolean isAscending(final int[] values, final int count) {
+        for (int i = 1; i < count; i++) {
+            if (values[i] <= values[i - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fills the sparse representation with the specified lines that are not sorted yet. The lines are sorted together
+     * with their index (line in the upper and index in the lower 32 bits of a long), so that the last counters of a
+     * duplicate line can be identified without boxing the values.
+     *
+     * @param newLines
+     *         the lines to add
+     * @param newCovered
+     *         the number of covered items of the lines
+     * @param newMissed
+     *         the number of missed items of the lines
+     * @param count
+     *         the number of lines to add
+     */
+    private void fillSorted(final int[] newLines, final int[] newCovered, final int[] newMissed, final int count) {
+        var keys = new long[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = (long) newLines[i] << 32 | i;
+        }
+        Arrays.sort(keys);
+        for (int i = 0; i < count; i++) {
+            if (i + 1 < count && (int) (keys[i + 1] >> 32) == (int) (keys[i] >> 32)) {
+                continue; // skip all but the last counters of a line
+            }
+            var index = (int) keys[i];
+            lines[lineCount] = newLines[index];
+            covered[lineCount] = newCovered[index];
+            missed[lineCount] = newMissed[index];
+            lineCount++;
+        }
+    }
+
+    /**
+     * Merges the sorted lines of the other sparse instance into this sparse instance. The counters of the other
+     * instance replace the counters of lines that are part of both instances.
+     *
+     * @param other
+     *         the sparse instance with the counters to merge
+     */
+    private void mergeSorted(final LineCounters other) {
+        var mergedLines = new int[lineCount + other.lineCount];
+        var mergedCovered = new int[mergedLines.length];
+        var mergedMissed = new int[mergedLines.length];
+        int left = 0;
+        int right = 0;
+        int merged = 0;
+        while (left < lineCount || right < other.lineCount) {
+            if (right == other.lineCount || (left < lineCount && lines[left] < other.lines[right])) {
+                mergedLines[merged] = lines[left];
+                mergedCovered[merged] = covered[left];
+                mergedMissed[merged] = missed[left];
+                left++;
+            }
+            else {
+                if (left < lineCount && lines[left] == other.lines[right]) {
+                    left++;
+                }
+                mergedLines[merged] = other.lines[right];
+                mergedCovered[merged] = other.covered[right];
+                mergedMissed[merged] = other.missed[right];
+                right++;
+            }
+            merged++;
+        }
+        lines = mergedLines;
+        covered = mergedCovered;
+        missed = mergedMissed;
+        lineCount = merged;
+    }
+
+    private void putDense(final int line, final int coveredItems, final int missedItems) {
+        int offset = line - firstLine;
+        if (offset < 0 || offset >= covered.length) {
+            int first = Math.min(firstLine, line);
+            int last = Math.max(lastLine, line);
+            if (!isDenseEnough(lineCount + 1, first, last, 3)) {
+                convertToSparse();
+                putSparse(line, coveredItems, missedItems);
+                return;
+            }
+            resizeDense(first, last);
+            offset = line - firstLine;
+        }
+        if (covered[offset] == ABSENT) {
+            lineCount++;
+        }
+        covered[offset] = coveredItems;
+        missed[offset] = missedItems;
+        lastLine = Math.max(lastLine, line);
+    }
+
+    private void putSparse(final int line, final int coveredItems, final int missedItems) {
+        int index = lineCount == 0 || line > lines[lineCount - 1] ? -(lineCount + 1) : indexOf(line);
+        if (index < 0) {
+            if (lineCount == lines.length) {
+                int first = lineCount == 0 ? line : Math.min(lines[0], line);
+                int last = lineCount == 0 ? line : Math.max(lines[lineCount - 1], line);
+                if (isDenseEnough(lineCount + 1, first, last, 2)) {
+                    convertToDense(first, last);
+                    putDense(line, coveredItems, missedItems);
+                    return;
+                }
+                growSparse();
+            }
+            index = -(index + 1);
+            System.arraycopy(lines, index, lines, index + 1, lineCount - index);
+            System.arraycopy(covered, index, covered, index + 1, lineCount - index);
+            System.arraycopy(missed, index, missed, index + 1, lineCount - index);
+            lines[index] = line;
+            lineCount++;
+        }
+        covered[index] = coveredItems;
+        missed[index] = missedItems;
+    }
+
+    /**
+     * Returns whether the dense representation should be used for the specified number of lines within the specified
+     * range. The dense representation needs less memory if at least two thirds of the lines within the range have
+     * counters, but it is also used for lower densities to get constant access times.
+     *
+     * @param count
+     *         the number of lines with counters
+     * @param first
+     *         the first line with counters
+     * @param last
+     *         the last line with counters
+     * @param maximumRatio
+     *         the maximum ratio of the number of lines in the range and the number of lines with counters
+     *
+     * @return {@code true} if the dense representation should be used, {@code false} otherwise
+     */
+    private static boolean isDenseEnough(final int count, final int first, final int last, final int maximumRatio) {
+        return (long) last - first + 1 <= (long) count * maximumRatio;
+    }
+
+    private void growSparse() {
+        int capacity = Math.max(MINIMUM_CAPACITY, lines.length + (lines.length >> 1));
+        lines = Arrays.copyOf(lines, capacity);
+        covered = Arrays.copyOf(covered, capacity);
+        missed = Arrays.copyOf(missed, capacity);
+    }
+
+    private void convertToDense(final int first, final int last) {
+        var denseCovered = createDenseArray(last - first + 1);
+        var denseMissed = new int[denseCovered.length];
+        for (int i = 0; i < lineCount; i++) {
+            denseCovered[lines[i] - first] = covered[i];
+            denseMissed[lines[i] - first] = missed[i];
+        }
+        lastLine = lineCount == 0 ? first : lines[lineCount - 1];
+        firstLine = first;
+        covered = denseCovered;
+        missed = denseMissed;
+        lines = EMPTY;
+        dense = true;
+    }
+
+    private void resizeDense(final int first, final int last) {
+        int required = last - first + 1;
+        int length = first < firstLine ? required : Math.max(required, covered.length + (covered.length >> 1));
+        var denseCovered = createDenseArray(length);
+        var denseMissed = new int[length];
+        int used = lastLine - firstLine + 1;
+        System.arraycopy(covered, 0, denseCovered, firstLine - first, used);
+        System.arraycopy(missed, 0, denseMissed, firstLine - first, used);
+        firstLine = first;
+        covered = denseCovered;
+        missed = denseMissed;
+    }
+
+    private static int[] createDenseArray(final int length) {
+        var array = new int[length];
+        Arrays.fill(array, ABSENT);
+        return array;
+    }
+
+    private void convertToSparse() {
+        var sparseLines = getLines();
+        var sparseCovered = getCoveredCounters();
+        var sparseMissed = getMissedCounters();
+        lines = sparseLines;
+        dense = false;
+        covered = sparseCovered;
+        missed = sparseMissed;
+        runLengths = EMPTY;
+        runCount = 0;
+    }
+
+    private int countRuns() {
+        int runs = 0;
+        for (int i = 0; i < lineCount; i++) {
+            if (i == 0 || !continuesRun(i)) {
+                runs++;
+            }
+        }
+        return runs;
+    }
+
+    private boolean continuesRun(final int index) {
+        return lines[index] == lines[index - 1] + 1
+                && covered[index] == covered[index - 1] && missed[index] == missed[index - 1];
+    }
+
+    private void convertToRunLength(final int runs) {
+        var runLines = new int[runs];
+        var runCovered = new int[runs];
+        var runMissed = new int[runs];
+        var lengths = new int[runs];
+        int run = -1;
+        for (int i = 0; i < lineCount; i++) {
+            if (i == 0 || !continuesRun(i)) {
+                run++;
+                runLines[run] = lines[i];
+                runCovered[run] = covered[i];
+                runMissed[run] = missed[i];
+            }
+            lengths[run]++;
+        }
+        lines = runLines;
+        covered = runCovered;
+        missed = runMissed;
+        runLengths = lengths;
+        runCount = runs;
+    }
+
+    /**
+     * Chooses the representation that fits best to the current lines and reduces the capacity of the arrays to the
+     * actual number of lines. The run-length encoded representation is chosen if it requires less memory than the
+     * dense or sparse representation. This method should be called after all counters have been added.
+     */
+    void compact() {
+        if (lineCount == 0) {
+            lines = EMPTY;
+            dense = false;
+            covered = EMPTY;
+            missed = EMPTY;
+            return;
+        }
+
+        convertToSparse();
+        int runs = countRuns();
+        int first = lines[0];
+        int last = lines[lineCount - 1];
+        boolean useDense = isDenseEnough(lineCount, first, last, 2);
+        long requiredMemory = useDense ? ((long) last - first + 1) * DENSE_LINE_SIZE : (long) lineCount * SPARSE_LINE_SIZE;
+        if ((long) runs * RUN_SIZE < requiredMemory) {
+            convertToRunLength(runs);
+        }
+        else if (useDense) {
+            convertToDense(first, last);
+        }
+    }
+
+    /**
+     * Returns the line numbers in ascending order.
+     *
+     * @return the line numbers
+     */
+    int[] getLines() {
+        if (isRunLengthEncoded() || isDense()) {
+            var result = new int[lineCount];
+            var index = new int[1];
+            forEach((line, coveredItems, missedItems) -> result[index[0]++] = line);
+            return result;
+        }
+        return Arrays.copyOf(lines, lineCount);
+    }
+
+    /**
+     * Returns a read-only view of the line numbers in ascending order. The view is backed by an array that is cached
+     * until the counters change, so the lines are not copied for each call.
+     *
+     * @return the line numbers
+     */
+    IntBuffer getLineView() {
+        return Columns.view(getColumns().lines);
+    }
+
+    /**
+     * Returns a read-only view of the number of covered items for all lines, in the order of the line numbers. The
+     * view is backed by an array that is cached until the counters change, so the counters are not copied for each
+     * call.
+     *
+     * @return the number of covered items
+     */
+    IntBuffer getCoveredView() {
+        return Columns.view(getColumns().covered);
+    }
+
+    /**
+     * Returns a read-only view of the number of missed items for all lines, in the order of the line numbers. The
+     * view is backed by an array that is cached until the counters change, so the counters are not copied for each
+     * call.
+     *
+     * @return the number of missed items
+     */
+    IntBuffer getMissedView() {
+        return Columns.view(getColumns().missed);
+    }
+
+    /**
+     * Creates the bitmaps and columns that back the read-only views of the counters. Afterward, reading the views does
+     * not modify this instance anymore, as long as the counters do not change.
+     */
+    void createViews() {
+        if (!hasScatteredLines()) {
+            getBitmaps();
+        }
+        getColumns();
+    }
+
+    private Columns getColumns() {
+        var cached = columns;
+        if (cached == null) {
+            cached = new Columns(this);
+            columns = cached;
+        }
+        return cached;
+    }
+
+    /**
+     * Returns the number of covered items for all lines, in the order of the line numbers.
+     *
+     * @return the number of covered items
+     */
+    int[] getCoveredCounters() {
+        return getCounters(covered);
+    }
+
+    /**
+     * Returns the number of missed items for all lines, in the order of the line numbers.
+     *
+     * @return the number of missed items
+     */
+    int[] getMissedCounters() {
+        return getCounters(missed);
+    }
+
+    private int[] getCounters(final int... counters) {
+        if (isRunLengthEncoded()) {
+            var result = new int[lineCount];
+            int index = 0;
+            for (int run = 0; run < runCount; run++) {
+                Arrays.fill(result, index, index + runLengths[run], counters[run]);
+                index += runLengths[run];
+            }
+            return result;
+        }
+        if (isDense()) {
+            var result = new int[lineCount];
+            int index = 0;
+            for (int offset = 0; index < lineCount; offset++) {
+                if (covered[offset] != ABSENT) {
+                    result[index++] = counters[offset];
+                }
+            }
+            return result;
+        }
+        return Arrays.copyOf(counters, lineCount);
+    }
+
+    /**
+     * Returns a map with the number of covered items per line.
+     *
+     * @return the number of covered items per line
+     */
+    NavigableMap<Integer, Integer> toCoveredMap() {
+        var map = new TreeMap<Integer, Integer>();
+        forEach((line, coveredItems, missedItems) -> map.put(line, coveredItems));
+        return map;
+    }
+
+    /**
+     * Returns a map with the number of missed items per line.
+     *
+     * @return the number of missed items per line
+     */
+    NavigableMap<Integer, Integer> toMissedMap() {
+        var map = new TreeMap<Integer, Integer>();
+        forEach((line, coveredItems, missedItems) -> map.put(line, missedItems));
+        return map;
+    }
+
+    /**
+     * Returns all lines with counters.
+     *
+     * @return the lines with counters
+     */
+    NavigableSet<Integer> getInstrumentedLines() {
+        if (hasScatteredLines()) {
+            return filterLines((coveredItems, missedItems) -> true);
+        }
+        return getBitmaps().createSet(Bitmaps::getInstrumented);
+    }
+
+    /**
+     * Returns all lines with at least one covered item.
+     *
+     * @return the fully or partially covered lines
+     */
+    NavigableSet<Integer> getCoveredLines() {
+        if (hasScatteredLines()) {
+            return filterLines((coveredItems, missedItems) -> coveredItems != 0);
+        }
+        return getBitmaps().createSet(Bitmaps::getCovered);
+    }
+
+    /**
+     * Returns all lines without covered items.
+     *
+     * @return the missed lines
+     */
+    NavigableSet<Integer> getMissedLines() {
+        if (hasScatteredLines()) {
+            return filterLines((coveredItems, missedItems) -> coveredItems == 0);
+        }
+        return getBitmaps().createSet(Bitmaps::getMissed);
+    }
+
+    /**
+     * Returns all lines with covered and missed items.
+     *
+     * @return the partially covered lines
+     */
+    NavigableSet<Integer> getPartiallyCoveredLines() {
+        if (hasScatteredLines()) {
+            return filterLines((coveredItems, missedItems) -> coveredItems > 0 && missedItems > 0);
+        }
+        return getBitmaps().createSet(Bitmaps::getPartiallyCovered);
+    }
+
+    private NavigableSet<Integer> filterLines(final LineFilter filter) {
+        var filtered = new TreeSet<Integer>();
+        forEach((line, coveredItems, missedItems) -> {
+            if (filter.test(coveredItems, missedItems)) {
+                filtered.add(line);
+            }
+        });
+        return Collections.unmodifiableNavigableSet(filtered);
+    }
+
+    /**
+     * Returns the ranges of missed lines. A range contains all missed lines that are not separated by a covered line,
+     * lines without counters are ignored. E.g., if line 2 has no counters, then the missed lines [1, 3] will be grouped
+     * in the range [1, 3].
+     *
+     * @return the ranges of missed lines
+     */
+    @SuppressWarnings("PMD.LooseCoupling")
+    LineRangeList getMissedLineRanges() {
+        if (isRunLengthEncoded()) {
+            return getMissedRuns();
+        }
+        if (hasScatteredLines()) {
+            var ranges = new MissedRanges();
+            forEach(ranges);
+            return ranges.getRanges();
+        }
+
+        var ranges = new LineRangeList();
+
+        var status = getBitmaps();
+        var missedLines = status.getMissed();
+        var coveredLines = status.getCovered();
+        int start = missedLines.nextSetBit(0);
+        while (start >= 0) {
+            int nextCovered = coveredLines.nextSetBit(start);
+            int end = nextCovered < 0 ? missedLines.length() - 1 : missedLines.previousSetBit(nextCovered);
+            ranges.add(new LineRange(status.getOffset() + start, status.getOffset() + end));
+            start = nextCovered < 0 ? -1 : missedLines.nextSetBit(nextCovered);
+        }
+        return ranges;
+    }
+
+    @SuppressWarnings("PMD.LooseCoupling")
+    private LineRangeList getMissedRuns() {
+        var ranges = new LineRangeList();
+        boolean isMissed = false;
+        int start = 0;
+        int end = 0;
+        for (int run = 0; run < runCount; run++) {
+            if (covered[run] == 0) {
+                if (!isMissed) {
+                    start = lines[run];
+                    isMissed = true;
+                }
+                end = lines[run] + runLengths[run] - 1;
+            }
+            else if (isMissed) {
+                ranges.add(new LineRange(start, end));
+                isMissed = false;
+            }
+        }
+        if (isMissed) {
+            ranges.add(new LineRange(start, end));
+        }
+        return ranges;
+    }
+
+    /**
+     * Returns the runs of the run-length encoded representation. Each run is stored in four consecutive elements: the
+     * first line, the number of lines, the number of covered items, and the number of missed items of each line. The
+     * counters must use the run-length encoded representation.
+     *
+     * @return the runs
+     */
+    int[] toRuns() {
+        Ensure.that(isRunLengthEncoded()).isTrue("The counters do not use the run-length encoded representation");
+
+        var runs = new int[runCount * RUN_SIZE];
+        for (int run = 0; run < runCount; run++) {
+            runs[run * RUN_SIZE] = lines[run];
+            runs[run * RUN_SIZE + 1] = runLengths[run];
+            runs[run * RUN_SIZE + 2] = covered[run];
+            runs[run * RUN_SIZE + 3] = missed[run];
+        }
+        return runs;
+    }
+
+    /**
+     * Creates a new instance from the specified runs.
+     *
+     * @param runs
+     *         the runs, see {@link #toRuns()}
+     *
+     * @return the counters of the runs
+     */
+    static LineCounters fromRuns(final int... runs) {
+        var counters = new LineCounters();
+        for (int run = 0; run < runs.length / RUN_SIZE; run++) {
+            int first = runs[run * RUN_SIZE];
+            for (int line = first; line < first + runs[run * RUN_SIZE + 1]; line++) {
+                counters.put(line, runs[run * RUN_SIZE + 2], runs[run * RUN_SIZE + 3]);
+            }
+        }
+        counters.compact();
+        return counters;
+    }
+
+    /**
+     * Returns whether the lines with counters are scattered over a large span of lines. Then the bitmaps of the line
+     * status would be larger than the counters, so the status of the lines is computed from the counters instead.
+     *
+     * @return {@code true} if the lines are scattered, {@code false} if bitmaps should be used
+     */
+    private boolean hasScatteredLines() {
+        if (isEmpty() || isDense()) {
+            return false;
+        }
+        int last = isRunLengthEncoded() ? lines[runCount - 1] + runLengths[runCount - 1] - 1 : lines[lineCount - 1];
+        return !isDenseEnough(lineCount, lines[0], last, MAXIMUM_BITMAP_RATIO);
+    }
+
+    private Bitmaps getBitmaps() {
+        var cached = bitmaps;
+        if (cached == null) {
+            cached = new Bitmaps(this);
+            bitmaps = cached;
+        }
+        return cached;
+    }
+
+    private int indexOf(final int line) {
+        if (isRunLengthEncoded()) {
+            int run = Arrays.binarySearch(lines, 0, runCount, line);
+            if (run >= 0) {
+                return run;
+            }
+            int previous = -run - 2;
+            if (previous >= 0 && line < lines[previous] + runLengths[previous]) {
+                return previous;
+            }
+            return -1;
+        }
+        if (isDense()) {
+            int offset = line - firstLine;
+            if (offset >= 0 && offset < covered.length && covered[offset] != ABSENT) {
+                return offset;
+            }
+            return -1;
+        }
+        return Arrays.binarySearch(lines, 0, lineCount, line);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        var that = (LineCounters) o;
+        return lineCount == that.lineCount
+                && Arrays.equals(getColumns().lines, that.getColumns().lines)
+                && Arrays.equals(getColumns().covered, that.getColumns().covered)
+                && Arrays.equals(getColumns().missed, that.getColumns().missed);
+    }
+
+    @Override
+    public int hashCode() {
+        var result = new int[] {lineCount};
+        forEach((line, coveredItems, missedItems) -> result[0] = 31 * (31 * (31 * result[0] + line) + coveredItems)
+                + missedItems);
+        return result[0];
+    }
+
+    /**
+     * A consumer of the counters of a line.
+     */
+    @FunctionalInterface
+    interface LineCounterConsumer {
+        /**
+         * Consumes the counters of a line.
+         *
+         * @param line
+         *         the line number
+         * @param coveredItems
+         *         the number of covered items
+         * @param missedItems
+         *         the number of missed items
+         */
+        void accept(int line, int coveredItems, int missedItems);
+    }
+
+    /**
+     * A filter for the lines based on their counters.
+     */
+    @FunctionalInterface
+    private interface LineFilter {
+        boolean test(int coveredItems, int missedItems);
+    }
+
+    /**
+     * A cursor that moves forward over the lines with counters in ascending order. Moving the cursor does not allocate
+     * any objects, so several cursors can be used to merge the counters of different files in a single linear sweep.
+     */
+    final class Cursor {
+        /** Marks a cursor that has been moved beyond the last line. */
+        static final long NO_LINE = Long.MAX_VALUE;
+
+        private final int end = computeEnd();
+        private int index;
+        /** The position of the current line within the current run of the run-length encoded representation. */
+        private int position;
+
+        private Cursor() {
+            skipAbsent();
+        }
+
+        /**
+         * Returns the line at the current position of the cursor.
+         *
+         * @return the current line, or {@link #NO_LINE} if the cursor has been moved beyond the last line
+         */
+        long getLine() {
+            if (index >= end) {
+                return NO_LINE;
+            }
+            if (isRunLengthEncoded()) {
+                return (long) lines[index] + position;
+            }
+            return isDense() ? firstLine + index : lines[index];
+        }
+
+        /**
+         * Moves the cursor forward to the first line that is greater than or equal to the specified line.
+         *
+         * @param line
+         *         the line to move to
+         *
+         * @return {@code true} if the cursor is positioned at the specified line, {@code false} if there are no
+         *         counters for this line
+         */
+        boolean moveTo(final long line) {
+            while (getLine() < line) {
+                if (isRunLengthEncoded()) {
+                    moveWithinRuns(line);
+                }
+                else {
+                    index++;
+                    skipAbsent();
+                }
+            }
+            return getLine() == line;
+        }
+
+        private void moveWithinRuns(final long line) {
+            if (line < (long) lines[index] + runLengths[index]) {
+                position = (int) (line - lines[index]);
+            }
+            else {
+                index++;
+                position = 0;
+            }
+        }
+
+        private int computeEnd() {
+            if (isRunLengthEncoded()) {
+                return runCount;
+            }
+            return isDense() && lineCount > 0 ? lastLine - firstLine + 1 : lineCount;
+        }
+
+        /**
+         * Returns the number of covered items of the specified line. Moves the cursor forward to that line.
+         *
+         * @param line
+         *         the line to get the counter for
+         *
+         * @return the number of covered items, or 0 if there are no counters for the line
+         */
+        int getCovered(final int line) {
+            return moveTo(line) ? covered[index] : 0;
+        }
+
+        /**
+         * Returns the number of missed items of the specified line. Moves the cursor forward to that line.
+         *
+         * @param line
+         *         the line to get the counter for
+         *
+         * @return the number of missed items, or 0 if there are no counters for the line
+         */
+        int getMissed(final int line) {
+            return moveTo(line) ? missed[index] : 0;
+        }
+
+        private void skipAbsent() {
+            if (isDense()) {
+                while (index < end && covered[index] == ABSENT) {
+                    index++;
+                }
+            }
+        }
+    }
+
+    /**
+     * The line numbers and counters in parallel arrays that are sorted by the line number. The arrays are not changed
+     * anymore after creation, so they are exposed only as read-only views.
+     */
+    private static final class Columns {
+        private final int[] lines;
+        private final int[] covered;
+        private final int[] missed;
+
+        Columns(final LineCounters counters) {
+            lines = counters.getLines();
+            covered = counters.getCoveredCounters();
+            missed = counters.getMissedCounters();
+        }
+
+        static IntBuffer view(final int... values) {
+            return IntBuffer.wrap(values).asReadOnlyBuffer();
+        }
+    }
+
+    /**
+     * Collects the ranges of missed lines while the lines with counters are visited in ascending order.
+     */
+    private static final class MissedRanges implements LineCounterConsumer {
+        @SuppressWarnings("PMD.LooseCoupling")
+        private final LineRangeList ranges = new LineRangeList();
+        private boolean isMissed;
+        private int start;
+        private int end;
+
+        @Override
+        public void accept(final int line, final int coveredItems, final int missedItems) {
+            if (coveredItems == 0) {
+                if (!isMissed) {
+                    start = line;
+                    isMissed = true;
+                }
+                end = line;
+            }
+            else if (isMissed) {
+                ranges.add(new LineRange(start, end));
+                isMissed = false;
+            }
+        }
+
+        @SuppressWarnings("PMD.LooseCoupling")
+        LineRangeList getRanges() {
+            if (isMissed) {
+                ranges.add(new LineRange(start, end));
+                isMissed = false;
+            }
+            return ranges;
+        }
+    }
+
+    /**
+     * Bitmaps that mark the status of each line with counters. The bit at index {@code i} represents the line
+     * {@code offset + i}.
+     */
+    @SuppressWarnings("PMD.DataClass") // the bitmaps are immutable views of the counters
+    private static final class Bitmaps {
+        private final int offset;
+        private final BitSet instrumented = new BitSet();
+        private final BitSet covered = new BitSet();
+        private final BitSet missed = new BitSet();
+        private final BitSet partiallyCovered = new BitSet();
+
+        Bitmaps(final LineCounters counters) {
+            offset = counters.isEmpty() ? 0 : (int) counters.cursor().getLine();
+
+            counters.forEach(this::mark);
+        }
+
+        private void mark(final int line, final int coveredItems, final int missedItems) {
+            int index = line - offset;
+            instrumented.set(index);
+            if (coveredItems == 0) {
+                missed.set(index);
+            }
+            else {
+                covered.set(index);
+            }
+            if (coveredItems > 0 && missedItems > 0) {
+                partiallyCovered.set(index);
+            }
+        }
+
+        int getOffset() {
+            return offset;
+        }
+
+        BitSet getInstrumented() {
+            return instrumented;
+        }
+
+        BitSet getCovered() {
+            return covered;
+        }
+
+        BitSet getMissed() {
+            return missed;
+        }
+
+        BitSet getPartiallyCovered() {
+            return partiallyCovered;
+        }
+
+        NavigableSet<Integer> createSet(final Function<Bitmaps, BitSet> bitmap) {
+            return new LineSet(bitmap.apply(this), offset);
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package edu.hm.hafner.coverage;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.NavigableSet;
+
+import edu.hm.hafner.util.Ensure;
+
+/**
+ * A set of lines that is stored as sorted list of disjoint intervals. Adjacent or overlapping intervals are joined, so
+ * a contiguous block of lines (e.g., a hunk of a diff) requires only two integers independent of the number of lines in
+ * the block. Lines are searched with a binary search of the intervals.
+ *
+ * @author Ullrich Hafner
+ */
+final class LineIntervals {
+    private static final int[] EMPTY = new int[0];
+    private static final int MINIMUM_CAPACITY = 8;
+
+    /** The first lines of the intervals, sorted in ascending order. */
+    private int[] starts = EMPTY;
+    /** The last lines of the intervals, sorted in ascending order. */
+    private int[] ends = EMPTY;
+    private int size;
+
+    /**
+     * Creates a new empty set of lines.
+     */
+    LineIntervals() {
+        // empty
+    }
+
+    private LineIntervals(final LineIntervals other) {
+        starts = Arrays.copyOf(other.starts, other.size);
+        ends = Arrays.copyOf(other.ends, other.size);
+        size = other.size;
+    }
+
+    /**
+     * Returns a copy of this instance.
+     *
+     * @return the copy
+     */
+    LineIntervals copy() {
+        return new LineIntervals(this);
+    }
+
+    /**
+     * Returns whether this set contains no lines.
+     *
+     * @return {@code true} if this set contains no lines, {@code false} otherwise
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of disjoint intervals.
+     *
+     * @return the number of intervals
+     */
+    int getIntervalCount() {
+        return size;
+    }
+
+    /**
+     * Returns the first line of the interval with the specified index.
+     *
+     * @param index
+     *         the index of the interval
+     *
+     * @return the first line of the interval
+     */
+    int getStart(final int index) {
+        return starts[index];
+    }
+
+    /**
+     * Returns the last line of the interval with the specified index.
+     *
+     * @param index
+     *         the index of the interval
+     *
+     * @return the last line of the interval
+     */
+    int getEnd(final int index) {
+        return ends[index];
+    }
+
+    /**
+     * Returns whether the specified line is part of this set.
+     *
+     * @param line
+     *         the line to check
+     *
+     * @return {@code true} if the line is part of this set, {@code false} otherwise
+     */
+    boolean contains(final int line) {
+        int index = findLastStartAtOrBefore(line);
+        return index >= 0 && line <= ends[index];
+    }
+
+    /**
+     * Adds the specified line to this set.
+     *
+     * @param line
+     *         the line to add
+     */
+    void add(final int line) {
+        addRange(line, line);
+    }
+
+    /**
+     * Adds all lines of the specified range to this set.
+     *
+     * @param from
+     *         the first line of the range
+     * @param to
+     *         the last line of the range (inclusive)
+     */
+    void addRange(final int from, final int to) {
+        if (size == 0 || from > (long) ends[size - 1] + 1) { // typical case: the ranges are added in ascending order
+            append(from, to);
+            return;
+        }
+
+        int first = findFirstEndAtOrAfter((long) from - 1);
+        int last = findLastStartAtOrBefore((long) to + 1);
+        if (first > last) {
+            insert(first, from, to);
+        }
+        else {
+            starts[first] = Math.min(from, starts[first]);
+            ends[first] = Math.max(to, ends[last]);
+            int removed = last - first;
+            System.arraycopy(starts, last + 1, starts, first + 1, size - last - 1);
+            System.arraycopy(ends, last + 1, ends, first + 1, size - last - 1);
+            size -= removed;
+        }
+    }
+
+    private void append(final int from, final int to) {
+        insert(size, from, to);
+    }
+
+    private void insert(final int index, final int from, final int to) {
+        if (size == starts.length) {
+            int capacity = Math.max(MINIMUM_CAPACITY, size + (size >> 1));
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+        }
+        System.arraycopy(starts, index, starts, index + 1, size - index);
+        System.arraycopy(ends, index, ends, index + 1, size - index);
+        starts[index] = from;
+        ends[index] = to;
+        size++;
+    }
+
+    /**
+     * Returns the index of the first interval that ends at or after the specified line.
+     *
+     * @param line
+     *         the line
+     *
+     * @return the index of the interval, or the number of intervals if there is no such interval
+     */
+    private int findFirstEndAtOrAfter(final long line) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ends[middle] < line) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the last interval that starts at or before the specified line.
+     *
+     * @param line
+     *         the line
+     *
+     * @return the index of the interval, or -1 if there is no such interval
+     */
+    private int findLastStartAtOrBefore(final long line) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (starts[middle] <= line) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low - 1;
+    }
+
+    /**
+     * Returns a read-only view of all lines of this set. The view is backed by a bitmap of the lines, so the lines are
+     * neither boxed nor copied into a tree.
+     *
+     * @return the lines
+     */
+    NavigableSet<Integer> toLineSet() {
+        var bits = new BitSet();
+        if (size == 0) {
+            return new LineSet(bits, 0);
+        }
+        int offset = starts[0];
+        for (int i = 0; i < size; i++) {
+            bits.set(Math.toIntExact((long) starts[i] - offset), Math.toIntExact((long) ends[i] - offset + 1));
+        }
+        return new LineSet(bits, offset);
+    }
+
+    /**
+     * Returns the intervals of this set as an array of integers. The array contains the first and the last line of each
+     * interval, i.e., the interval with index {@code i} starts at array index {@code 2 * i}.
+     *
+     * @return the intervals
+     */
+    int[] toIntervals() {
+        var intervals = new int[size * 2];
+        for (int i = 0; i < size; i++) {
+            intervals[2 * i] = starts[i];
+            intervals[2 * i + 1] = ends[i];
+        }
+        return intervals;
+    }
+
+    /**
+     * Creates a new set of lines from the specified intervals.
+     *
+     * @param intervals
+     *         the intervals, see {@link #toIntervals()}
+     *
+     * @return the lines of the intervals
+     */
+    static LineIntervals fromIntervals(final int... intervals) {
+        Ensure.that(intervals.length % 2 == 0).isTrue("The intervals must contain pairs of lines: %s",
+                Arrays.toString(intervals));
+
+        var lines = new LineIntervals();
+        for (int i = 0; i < intervals.length; i += 2) {
+            lines.addRange(intervals[i], intervals[i + 1]);
+        }
+        return lines;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        var that = (LineIntervals) o;
+        return Arrays.equals(starts, 0, size, that.starts, 0, that.size)
+                && Arrays.equals(ends, 0, size, that.ends, 0, that.size);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = size;
+        for (int i = 0; i < size; i++) {
+            result = 31 * (31 * result + starts[i]) + ends[i];
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        var builder = new StringBuilder("[");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(starts[i]);
+            if (ends[i] != starts[i]) {
+                builder.append('-').append(ends[i]);
+            }
+        }
+        return builder.append(']').toString();
+    }
+}
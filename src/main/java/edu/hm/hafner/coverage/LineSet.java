@@ -0,0 +1,244 @@
+package edu.hm.hafner.coverage;
+
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+
+/**
+ * An unmodifiable and sorted set of line numbers that is backed by a {@link BitSet}. The bit at index {@code i} of the
+ * bitmap represents the line {@code offset + i}. The bitmap must not be changed after this set has been created.
+ *
+ * @author Ullrich Hafner
+ */
+final class LineSet extends AbstractSet<Integer> implements NavigableSet<Integer> {
+    private final BitSet bits;
+    private final int offset;
+    private final int cardinality;
+
+    /**
+     * Creates a new set for the lines that are marked in the specified bitmap.
+     *
+     * @param bits
+     *         the bitmap of the lines
+     * @param offset
+     *         the line that is represented by the first bit of the bitmap
+     */
+    LineSet(final BitSet bits, final int offset) {
+        super();
+
+        this.bits = bits;
+        this.offset = offset;
+        this.cardinality = bits.cardinality();
+    }
+
+    @Override
+    public int size() {
+        return cardinality;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        if (o instanceof Integer line) {
+            long index = (long) line - offset;
+            return index >= 0 && index < bits.length() && bits.get((int) index);
+        }
+        return false;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return new AscendingIterator();
+    }
+
+    @Override
+    public Iterator<Integer> descendingIterator() {
+        return new DescendingIterator();
+    }
+
+    @Override
+    @CheckForNull
+    public Comparator<? super Integer> comparator() {
+        return null; // natural ordering
+    }
+
+    @Override
+    public Integer first() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("The set of lines is empty");
+        }
+        return offset + bits.nextSetBit(0);
+    }
+
+    @Override
+    public Integer last() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("The set of lines is empty");
+        }
+        return offset + bits.length() - 1;
+    }
+
+    @Override
+    @CheckForNull
+    public Integer lower(final Integer line) {
+        return floorOf((long) line - 1);
+    }
+
+    @Override
+    @CheckForNull
+    public Integer floor(final Integer line) {
+        return floorOf(line);
+    }
+
+    @Override
+    @CheckForNull
+    public Integer ceiling(final Integer line) {
+        return ceilingOf(line);
+    }
+
+    @Override
+    @CheckForNull
+    public Integer higher(final Integer line) {
+        return ceilingOf((long) line + 1);
+    }
+
+    @CheckForNull
+    private Integer floorOf(final long line) {
+        long index = Math.min(line - offset, bits.length() - 1L);
+        if (index < 0) {
+            return null;
+        }
+        int found = bits.previousSetBit((int) index);
+        return found < 0 ? null : offset + found;
+    }
+
+    @CheckForNull
+    private Integer ceilingOf(final long line) {
+        long index = Math.max(line - offset, 0);
+        if (index >= bits.length()) {
+            return null;
+        }
+        return offset + bits.nextSetBit((int) index);
+    }
+
+    @Override
+    public Integer pollFirst() {
+        throw new UnsupportedOperationException("The set of lines is unmodifiable");
+    }
+
+    @Override
+    public Integer pollLast() {
+        throw new UnsupportedOperationException("The set of lines is unmodifiable");
+    }
+
+    @Override
+    public NavigableSet<Integer> descendingSet() {
+        return Collections.unmodifiableNavigableSet(new TreeSet<>(this).descendingSet());
+    }
+
+    @Override
+    public NavigableSet<Integer> subSet(final Integer fromElement, final boolean fromInclusive,
+            final Integer toElement, final boolean toInclusive) {
+        if (fromElement > toElement) {
+            throw new IllegalArgumentException("fromElement > toElement");
+        }
+        return range(fromInclusive ? (long) fromElement : (long) fromElement + 1,
+                toInclusive ? (long) toElement + 1 : (long) toElement);
+    }
+
+    @Override
+    public NavigableSet<Integer> subSet(final Integer fromElement, final Integer toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public NavigableSet<Integer> headSet(final Integer toElement, final boolean inclusive) {
+        return range(Integer.MIN_VALUE, inclusive ? (long) toElement + 1 : (long) toElement);
+    }
+
+    @Override
+    public NavigableSet<Integer> headSet(final Integer toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public NavigableSet<Integer> tailSet(final Integer fromElement, final boolean inclusive) {
+        return range(inclusive ? (long) fromElement : (long) fromElement + 1, (long) Integer.MAX_VALUE + 1);
+    }
+
+    @Override
+    public NavigableSet<Integer> tailSet(final Integer fromElement) {
+        return tailSet(fromElement, true);
+    }
+
+    /**
+     * Returns the lines of this set within the specified range.
+     *
+     * @param from
+     *         the first line of the range (inclusive)
+     * @param to
+     *         the last line of the range (exclusive)
+     *
+     * @return the lines within the range
+     */
+    private NavigableSet<Integer> range(final long from, final long to) {
+        var fromIndex = (int) Math.min(Math.max(from - offset, 0), bits.length());
+        var toIndex = (int) Math.min(Math.max(to - offset, fromIndex), bits.length());
+        return new LineSet(bits.get(fromIndex, toIndex), offset + fromIndex);
+    }
+
+    /**
+     * Iterates over the lines of the set in ascending order.
+     */
+    private final class AscendingIterator implements Iterator<Integer> {
+        private int nextIndex = bits.nextSetBit(0);
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex >= 0;
+        }
+
+        @Override
+        public Integer next() {
+            if (nextIndex < 0) {
+                throw new NoSuchElementException("No more lines");
+            }
+            int line = offset + nextIndex;
+            nextIndex = bits.nextSetBit(nextIndex + 1);
+            return line;
+        }
+    }
+
+    /**
+     * Iterates over the lines of the set in descending order.
+     */
+    private final class DescendingIterator implements Iterator<Integer> {
+        private int nextIndex = bits.length() - 1;
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex >= 0;
+        }
+
+        @Override
+        public Integer next() {
+            if (nextIndex < 0) {
+                throw new NoSuchElementException("No more lines");
+            }
+            int line = offset + nextIndex;
+            nextIndex = nextIndex == 0 ? -1 : bits.previousSetBit(nextIndex - 1);
+            return line;
+        }
+    }
+}
@@ -60,6 +60,18 @@ public final class MethodNode extends Node {
         return this;
     }
 
+    @Override
+    NodeVisitor.VisitResult accept(final NodeVisitor visitor) {
+        return visitor.visitMethod(this);
+    }
+
+    @Override
+    void childAdded(final Node child) {
+        if (childCount() == 1) {
+            invalidateIndexOfParent(); // the parent needs to search the children of this method as well
+        }
+    }
+
     @Override
     public Node copy() {
         return new MethodNode(getMethodName(), getSignature(), getLineNumber());
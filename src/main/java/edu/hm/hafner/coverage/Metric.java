@@ -4,6 +4,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.Fraction;
 
 import edu.hm.hafner.coverage.Coverage.CoverageBuilder;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import java.io.Serial;
@@ -11,8 +12,10 @@ import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.NavigableSet;
 import java.util.Optional;
 import java.util.Set;
@@ -74,6 +77,9 @@ public enum Metric {
     WEIGHED_METHOD_COUNT("Weighted Method Count", "Methods", new ValuesAggregator(),
             MetricTendency.SMALLER_IS_BETTER, MetricValueType.CLASS_METRIC, new IntegerFormatter());
 
+    private static final String CYCLOMATIC_PREFIX = "CYCLOMATIC";
+    private static final Map<String, Metric> METRICS_BY_NORMALIZED_NAME = createNormalizedNames();
+
     /**
      * Returns the metric that belongs to the specified tag.
      *
@@ -97,13 +103,9 @@ public enum Metric {
      * @return the metric
      */
     public static Metric fromName(final String name) {
-        var normalizedName = normalize(name);
-        var normalizedFallback = normalize("CYCLOMATIC_" + name);
-        for (Metric metric : values()) {
-            if (normalizedName.equals(normalize(metric.name()))
-                    || normalizedFallback.equals(normalize(metric.name()))) { // support old serialization format
-                return metric;
-            }
+        var metric = fromNormalizedName(normalize(name));
+        if (metric != null) {
+            return metric;
         }
         if (StringUtils.isBlank(name)) {
             throw new IllegalArgumentException("No metric defined");
@@ -111,8 +113,46 @@ public enum Metric {
         throw new IllegalArgumentException("No metric found for name '" + name + "'");
     }
 
+    /**
+     * Returns the metric that belongs to the specified normalized name, i.e., a name in upper case characters without
+     * dashes and underscores. The name may omit the prefix "CYCLOMATIC" to support the old serialization format.
+     *
+     * @param normalizedName
+     *         the normalized name
+     *
+     * @return the metric, or {@code null} if there is no such metric
+     */
+    @CheckForNull
+    static Metric fromNormalizedName(final String normalizedName) {
+        var metric = METRICS_BY_NORMALIZED_NAME.get(normalizedName);
+        var fallback = METRICS_BY_NORMALIZED_NAME.get(CYCLOMATIC_PREFIX + normalizedName);
+        if (metric == null || (fallback != null && fallback.compareTo(metric) < 0)) {
+            return fallback;
+        }
+        return metric;
+    }
+
+    private static Map<String, Metric> createNormalizedNames() {
+        var names = new HashMap<String, Metric>();
+        for (Metric metric : values()) {
+            names.putIfAbsent(normalize(metric.name()), metric);
+        }
+        return names;
+    }
+
     private static String normalize(final String name) {
-        return name.toUpperCase(Locale.ENGLISH).replaceAll("[-_]", "");
+        var upperCase = name.toUpperCase(Locale.ENGLISH);
+        if (upperCase.indexOf('-') < 0 && upperCase.indexOf('_') < 0) {
+            return upperCase;
+        }
+        var normalized = new StringBuilder(upperCase.length());
+        for (int i = 0; i < upperCase.length(); i++) {
+            char c = upperCase.charAt(i);
+            if (c != '-' && c != '_') {
+                normalized.append(c);
+            }
+        }
+        return normalized.toString();
     }
 
     private final String displayName;
@@ -320,10 +360,26 @@ public enum Metric {
         }
 
         Optional<Value> getValue(final Node node, final Metric searchMetric) {
-            return node.getValues()
-                    .stream()
-                    .filter(leaf -> leaf.getMetric().equals(searchMetric))
-                    .findAny();
+            return Optional.ofNullable(node.getLocalValue(searchMetric));
+        }
+
+        /**
+         * Sums up the values of the children for the specified metric. The values are summed up in primitive counters,
+         * so no intermediate values are created.
+         *
+         * @param node
+         *         the node with the children
+         * @param searchMetric
+         *         the metric to sum up
+         *
+         * @return the sum of the values of the children, or an empty optional if no child has a value for the metric
+         */
+        final Optional<Value> sumOfChildren(final Node node, final Metric searchMetric) {
+            var sum = new ValueAccumulator();
+            for (Node child : node.childrenView()) {
+                child.getValue(searchMetric).ifPresent(sum::add);
+            }
+            return sum.getSum();
         }
     }
 
@@ -338,10 +394,7 @@ public enum Metric {
 
         @Override
         Optional<Value> computeDerivedValue(final Node node, final Metric searchMetric) {
-            Optional<Value> aggregatedChildrenValue = node.getChildren().stream()
-                    .map(n -> n.getValue(searchMetric))
-                    .flatMap(Optional::stream)
-                    .reduce(Value::add);
+            Optional<Value> aggregatedChildrenValue = sumOfChildren(node, searchMetric);
             Optional<Value> localMetricValue = getMetricOf(node, searchMetric);
             return Stream.of(localMetricValue, aggregatedChildrenValue)
                     .flatMap(Optional::stream)
@@ -400,16 +453,22 @@ public enum Metric {
         @SuppressFBWarnings("SE_BAD_FIELD")
         private final BinaryOperator<Value> accumulator;
         private final String name;
+        private final boolean isSum;
 
         ValuesAggregator() {
-            this(Value::add, "total");
+            this(Value::add, "total", true);
         }
 
         ValuesAggregator(final BinaryOperator<Value> accumulator, final String name) {
+            this(accumulator, name, false);
+        }
+
+        private ValuesAggregator(final BinaryOperator<Value> accumulator, final String name, final boolean isSum) {
             super();
 
             this.accumulator = accumulator;
             this.name = name;
+            this.isSum = isSum;
         }
 
         @Override
@@ -426,10 +485,17 @@ public enum Metric {
         final Optional<Value> computeDerivedValue(final Node node, final Metric searchMetric) {
             var defaultValue = getDefaultValue(node);
 
-            return defaultValue.or(() -> node.getChildren().stream()
-                    .map(n -> compute(n, searchMetric))
+            return defaultValue.or(() -> aggregateChildren(node, searchMetric));
+        }
+
+        private Optional<Value> aggregateChildren(final Node node, final Metric searchMetric) {
+            if (isSum) {
+                return sumOfChildren(node, searchMetric);
+            }
+            return node.childrenView().stream()
+                    .map(n -> n.getValue(searchMetric))
                     .flatMap(Optional::stream)
-                    .reduce(accumulator));
+                    .reduce(accumulator);
         }
 
         protected Optional<Value> getDefaultValue(final Node node) {
@@ -443,7 +509,7 @@ public enum Metric {
 
         @Override
         protected Optional<Value> getDefaultValue(final Node node) {
-            return LINE.getValueFor(node).map(this::getTotal);
+            return node.getValue(LINE).map(this::getTotal);
         }
 
         @SuppressFBWarnings(value = "BC", justification = "The value is a coverage value as it has the metric LINE")
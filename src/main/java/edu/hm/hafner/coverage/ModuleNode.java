@@ -14,6 +14,8 @@ import java.util.stream.Collectors;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+
 /**
  * A {@link Node} which represents a module of a project.
  *
@@ -25,6 +27,10 @@ public final class ModuleNode extends Node {
 
     private final List<String> sources = new ArrayList<>();
 
+    /** Registry of all nodes in this tree, will be created on demand when searching for nodes. */
+    @CheckForNull
+    private transient NodeRegistry registry;
+
     /**
      * Creates a new module node with the given name.
      *
@@ -35,6 +41,11 @@ public final class ModuleNode extends Node {
         super(Metric.MODULE, name);
     }
 
+    @Override
+    NodeVisitor.VisitResult accept(final NodeVisitor visitor) {
+        return visitor.visitModule(this);
+    }
+
     @Override
     public ModuleNode copy() {
         var moduleNode = new ModuleNode(getName());
@@ -54,6 +65,8 @@ public final class ModuleNode extends Node {
      *         the source to add
      */
     public void addSource(final String source) {
+        ensureMutable();
+
         sources.add(source);
     }
 
@@ -88,9 +101,9 @@ public final class ModuleNode extends Node {
                 var localRoot = splitPackages.get();
                 Node localTail = localRoot;
                 while (localTail.hasChildren()) {
-                    localTail = localTail.getChildren().get(0);
+                    localTail = localTail.childrenView().get(0);
                 }
-                localTail.addAllChildren(packageNode.getChildren()); // move the children to the new tail
+                localTail.addAllChildren(packageNode.childrenView()); // move the children to the new tail
                 mergeSinglePackage(localRoot);
             }
             else {
@@ -125,6 +138,25 @@ public final class ModuleNode extends Node {
         return packageNode;
     }
 
+    @Override
+    Optional<NodeRegistry> getRegistry() {
+        if (registry == null) {
+            registry = new NodeRegistry(this);
+        }
+        return Optional.of(registry);
+    }
+
+    @Override
+    Optional<NodeRegistry> getExistingRegistry() {
+        return Optional.ofNullable(registry);
+    }
+
+    @Override
+    @SuppressWarnings("PMD.NullAssignment") // the registry will be recreated on demand
+    void clearRegistry() {
+        registry = null;
+    }
+
     @Override
     public boolean isAggregation() {
         return true;
@@ -152,6 +184,6 @@ public final class ModuleNode extends Node {
 
     @Override
     public String toString() {
-        return String.format(Locale.ENGLISH, "[%s] %s <%d> %s", getMetric(), getName(), getChildren().size(), getSourceFolders());
+        return String.format(Locale.ENGLISH, "[%s] %s <%d> %s", getMetric(), getName(), childCount(), getSourceFolders());
     }
 }
@@ -0,0 +1,148 @@
+package edu.hm.hafner.coverage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * An index of the mutations of a file that groups the mutations by line. The index is built once in a single pass over
+ * the mutations and provides constant time access to the mutations of a line and to the number of killed and survived
+ * mutations of a line. The index is immutable: it needs to be recreated whenever the mutations of the file change.
+ *
+ * @author Ullrich Hafner
+ */
+final class MutationIndex {
+    private final NavigableMap<Integer, List<Mutation>> mutationsPerLine;
+    private final NavigableMap<Integer, List<Mutation>> survivedMutationsPerLine;
+    private final Map<Integer, LineMutations> mutationsOfLine;
+
+    /**
+     * Creates an index for the specified mutations.
+     *
+     * @param mutations
+     *         the mutations to index
+     */
+    MutationIndex(final List<Mutation> mutations) {
+        Map<Integer, LineMutations> lines = new HashMap<>();
+        for (Mutation mutation : mutations) {
+            lines.computeIfAbsent(mutation.getLine(), LineMutations::new).add(mutation);
+        }
+
+        var all = new TreeMap<Integer, List<Mutation>>();
+        var survived = new TreeMap<Integer, List<Mutation>>();
+        for (LineMutations line : lines.values()) {
+            line.freeze();
+            all.put(line.line, line.all);
+            if (!line.survived.isEmpty()) {
+                survived.put(line.line, line.survived);
+            }
+        }
+
+        mutationsOfLine = lines;
+        mutationsPerLine = Collections.unmodifiableNavigableMap(all);
+        survivedMutationsPerLine = Collections.unmodifiableNavigableMap(survived);
+    }
+
+    /**
+     * Returns the mutations grouped by line.
+     *
+     * @return the mutations per line, sorted by line number
+     */
+    NavigableMap<Integer, List<Mutation>> getMutationsPerLine() {
+        return mutationsPerLine;
+    }
+
+    /**
+     * Returns the survived mutations grouped by line. Lines without survived mutations are not part of the result.
+     *
+     * @return the survived mutations per line, sorted by line number
+     */
+    NavigableMap<Integer, List<Mutation>> getSurvivedMutationsPerLine() {
+        return survivedMutationsPerLine;
+    }
+
+    /**
+     * Returns the mutations of the specified line.
+     *
+     * @param line
+     *         the line to get the mutations for
+     *
+     * @return the mutations of the line, or an empty list if the line has no mutations
+     */
+    List<Mutation> getMutations(final int line) {
+        var mutations = mutationsOfLine.get(line);
+        return mutations == null ? List.of() : mutations.all;
+    }
+
+    /**
+     * Returns the survived mutations of the specified line.
+     *
+     * @param line
+     *         the line to get the mutations for
+     *
+     * @return the survived mutations of the line, or an empty list if the line has no survived mutations
+     */
+    List<Mutation> getSurvivedMutations(final int line) {
+        var mutations = mutationsOfLine.get(line);
+        return mutations == null ? List.of() : mutations.survived;
+    }
+
+    /**
+     * Returns the number of killed mutations of the specified line.
+     *
+     * @param line
+     *         the line to get the number of mutations for
+     *
+     * @return the number of killed mutations
+     */
+    int getKilledCount(final int line) {
+        var mutations = mutationsOfLine.get(line);
+        return mutations == null ? 0 : mutations.killed;
+    }
+
+    /**
+     * Returns the number of survived mutations of the specified line.
+     *
+     * @param line
+     *         the line to get the number of mutations for
+     *
+     * @return the number of survived mutations
+     */
+    int getSurvivedCount(final int line) {
+        var mutations = mutationsOfLine.get(line);
+        return mutations == null ? 0 : mutations.survived.size();
+    }
+
+    /**
+     * The mutations of a single line.
+     */
+    private static final class LineMutations {
+        private final int line;
+        private List<Mutation> all = new ArrayList<>();
+        private List<Mutation> survived = new ArrayList<>();
+        private int killed;
+
+        LineMutations(final int line) {
+            this.line = line;
+        }
+
+        void add(final Mutation mutation) {
+            all.add(mutation);
+            if (mutation.hasSurvived()) {
+                survived.add(mutation);
+            }
+            if (mutation.isKilled()) {
+                killed++;
+            }
+        }
+
+        void freeze() {
+            all = Collections.unmodifiableList(all);
+            survived = survived.isEmpty() ? List.of() : Collections.unmodifiableList(survived);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.apache.commons.lang3.tuple.ImmutablePair;
 
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 
+import edu.hm.hafner.coverage.NodeVisitor.VisitResult;
 import edu.hm.hafner.util.Ensure;
 import edu.hm.hafner.util.TreeString;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
@@ -14,6 +15,10 @@ import java.io.Serial;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -24,9 +29,13 @@ import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.Spliterator;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -35,7 +44,8 @@ import java.util.stream.Stream;
  *
  * @author Ullrich Hafner
  */
-@SuppressWarnings({"PMD.GodClass", "PMD.ExcessivePublicCount", "PMD.CyclomaticComplexity", "PMD.CouplingBetweenObjects"})
+@SuppressWarnings({"PMD.GodClass", "PMD.ExcessivePublicCount", "PMD.CyclomaticComplexity", "PMD.CouplingBetweenObjects",
+        "checkstyle:ClassDataAbstractionCoupling", "checkstyle:ClassFanOutComplexity"})
 public abstract class Node implements Serializable {
     @Serial
     private static final long serialVersionUID = -6608885640271135273L;
@@ -49,6 +59,49 @@ public abstract class Node implements Serializable {
     private final List<Node> children = new ArrayList<>();
     private final List<Value> values = new ArrayList<>();
 
+    /** Index of the children by their ID, will be recreated on demand after deserialization. */
+    @CheckForNull
+    private transient Map<String, Node> childrenById;
+    /**
+     * Index of the values of this node, indexed by the ordinal of the metric. The order of the values is still defined
+     * by the list of values. The index will be recreated on demand after deserialization.
+     */
+    @CheckForNull
+    private transient Value[] valuesByMetric;
+
+    /**
+     * Cache of the aggregated values of this subtree, indexed by the ordinal of the metric. A {@code null} element
+     * marks a value that has not been computed yet. The cache will be recreated on demand after deserialization.
+     */
+    @CheckForNull
+    private transient Optional<Value>[] aggregatedValues;
+    /** Determines whether the cache of aggregated values contains the values of all metrics. */
+    private transient boolean isFullyAggregated;
+    /** Cache of the metrics that are available in this subtree, will be recreated on demand. */
+    @CheckForNull
+    private transient Set<Metric> aggregatedMetrics;
+    @CheckForNull
+    private transient NavigableSet<Metric> aggregatedMetricsView;
+    /** Cache of the metrics of the values that are stored in this subtree, will be recreated on demand. */
+    @CheckForNull
+    private transient Set<Metric> valueMetrics;
+    @CheckForNull
+    private transient NavigableSet<Metric> valueMetricsView;
+    /** Cache of the metrics of all descendants of this node, will be recreated on demand. */
+    @CheckForNull
+    private transient Set<Metric> metricsOfDescendants;
+    /** Cache of the number of nodes in this subtree, 0 if not computed yet. */
+    private transient int subtreeSize;
+
+    /** Determines whether this node has been frozen, see {@link #freeze()}. */
+    private transient boolean frozen;
+    /** Compact and unmodifiable copy of the children, available if this node has been frozen. */
+    @CheckForNull
+    private transient List<Node> frozenChildren;
+    /** Compact and unmodifiable copy of the values, available if this node has been frozen. */
+    @CheckForNull
+    private transient List<Value> frozenValues;
+
     @CheckForNull
     private Node parent;
 
@@ -82,7 +135,153 @@ public abstract class Node implements Serializable {
     }
 
     void setName(final String name) { // Should only be used during the deserialization of old reports
+        ensureMutable();
+
         this.name = name;
+
+        invalidateIndices();
+    }
+
+    /**
+     * Invalidates the index of children in the parent of this node. This method needs to be called whenever the ID of
+     * this node changes.
+     */
+    void invalidateIndexOfParent() {
+        if (parent != null) {
+            parent.invalidateIndexOfChildren();
+        }
+    }
+
+    /**
+     * Invalidates all indices of the children of this node. The indices will be recreated on demand.
+     */
+    @SuppressWarnings("PMD.NullAssignment") // the index will be recreated on demand
+    void invalidateIndexOfChildren() {
+        childrenById = null;
+    }
+
+    /**
+     * Called after the specified child has been added to this node. Subclasses may override this method to update
+     * additional indices of their children.
+     *
+     * @param child
+     *         the added child
+     */
+    void childAdded(final Node child) {
+        // no additional indices in the default implementation
+    }
+
+    /**
+     * Called after the specified child has been removed from this node. Subclasses may override this method to update
+     * additional indices of their children.
+     *
+     * @param child
+     *         the removed child
+     */
+    void childRemoved(final Node child) {
+        // no additional indices in the default implementation
+    }
+
+    /**
+     * Invalidates all indices that refer to the ID of this node, i.e. the index of children in the parent and the
+     * registry of the whole tree. This method needs to be called whenever the ID of this node changes.
+     */
+    void invalidateIndices() {
+        invalidateIndexOfParent();
+        findRoot().ifPresent(Node::clearRegistry);
+    }
+
+    /**
+     * Returns the root of the tree this node is part of. If one of the nodes on the path to the root is not linked as a
+     * child of its parent, then the tree is inconsistent and an empty result is returned.
+     *
+     * @return the root of the tree
+     */
+    @SuppressWarnings({"ReferenceEquality", "PMD.CompareObjectsWithEquals"})
+    private Optional<Node> findRoot() {
+        var node = this;
+        while (node.parent != null) {
+            if (node.parent.getChildrenById().get(node.getId()) != node) {
+                return Optional.empty();
+            }
+            node = node.parent;
+        }
+        return Optional.of(node);
+    }
+
+    /**
+     * Returns whether this node is the specified node or one of its descendants.
+     *
+     * @param ancestor
+     *         the ancestor to look for
+     *
+     * @return {@code true} if this node is part of the subtree spanned by the specified node, {@code false} otherwise
+     */
+    @SuppressWarnings({"ReferenceEquality", "PMD.CompareObjectsWithEquals"})
+    boolean isDescendantOf(final Node ancestor) {
+        for (var node = this; node != null; node = node.parent) {
+            if (node == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Optional<NodeRegistry> findRegistry() {
+        return findRoot().flatMap(Node::getRegistry);
+    }
+
+    private Optional<NodeRegistry> findExistingRegistry() {
+        return findRoot().flatMap(Node::getExistingRegistry);
+    }
+
+    /**
+     * Returns the registry of all nodes in the tree spanned by this node. The registry will be created on demand.
+     * Only root nodes that are capable of managing a registry return a result.
+     *
+     * @return the registry of this tree, or an empty result if this node does not manage a registry
+     */
+    Optional<NodeRegistry> getRegistry() {
+        return Optional.empty();
+    }
+
+    /**
+     * Returns the registry of all nodes in the tree spanned by this node, if it has been created already.
+     *
+     * @return the registry of this tree, or an empty result if no registry has been created yet
+     */
+    Optional<NodeRegistry> getExistingRegistry() {
+        return Optional.empty();
+    }
+
+    /**
+     * Clears the registry of all nodes in the tree spanned by this node. The registry will be recreated on demand.
+     */
+    void clearRegistry() {
+        // no registry in the default implementation
+    }
+
+    private Map<String, Node> getChildrenById() {
+        if (childrenById == null) {
+            var index = new HashMap<String, Node>();
+            for (Node child : children) {
+                index.putIfAbsent(child.getId(), child);
+            }
+            childrenById = index;
+        }
+        return childrenById;
+    }
+
+    /**
+     * Returns the child with the specified ID.
+     *
+     * @param childId
+     *         the ID of the child
+     *
+     * @return the child with the specified ID or an empty result if no such child exists
+     */
+    Optional<Node> findChild(final String childId) {
+        return Optional.ofNullable(getChildrenById().get(childId));
     }
 
     /**
@@ -110,14 +309,25 @@ public abstract class Node implements Serializable {
     /**
      * Returns the available metrics for the whole tree starting with this node.
      *
-     * @return the elements in this tree
+     * @return the elements in this tree (unmodifiable)
      */
     public NavigableSet<Metric> getMetrics() {
-        NavigableSet<Metric> elements = children.stream()
-                .map(Node::getMetrics)
-                .flatMap(Collection::stream)
-                .collect(Collectors.toCollection(TreeSet::new));
+        var view = aggregatedMetricsView;
+        if (view == null) {
+            view = Collections.unmodifiableNavigableSet(new TreeSet<>(getAggregatedMetrics()));
+            aggregatedMetricsView = view;
+        }
+        return view;
+    }
 
+    private Set<Metric> getAggregatedMetrics() {
+        var cached = aggregatedMetrics;
+        if (cached != null) {
+            return cached;
+        }
+
+        var elements = EnumSet.noneOf(Metric.class);
+        children.forEach(child -> elements.addAll(child.getAggregatedMetrics()));
         getMetricsOfValues().forEach(elements::add);
         if (elements.stream().anyMatch(Metric::isCoverage)) {
             elements.add(getMetric());
@@ -126,6 +336,7 @@ public abstract class Node implements Serializable {
             // These metrics depend on the existence of other metrics
             elements.add(Metric.LOC);
         }
+        aggregatedMetrics = elements;
         return elements;
     }
 
@@ -138,7 +349,7 @@ public abstract class Node implements Serializable {
      * @return {@code true} if results for the specified metric are available, {@code false} otherwise
      */
     public boolean containsMetric(final Metric searchMetric) {
-        return getMetrics().contains(searchMetric);
+        return getAggregatedMetrics().contains(searchMetric);
     }
 
     /**
@@ -162,17 +373,136 @@ public abstract class Node implements Serializable {
         return !children.isEmpty();
     }
 
+    /**
+     * Returns the children of this node. If this node has been frozen, then the same unmodifiable list is returned on
+     * every call, since the children cannot change anymore (see {@link #freeze()}). Otherwise, a new copy of the
+     * children is returned, so changing the returned list does not change this node.
+     *
+     * @return the children of this node
+     */
     public List<Node> getChildren() {
+        var frozenList = frozenChildren;
+        if (frozenList != null) {
+            return frozenList;
+        }
         return new ArrayList<>(children);
     }
 
     /**
-     * Appends the specified child element to the list of children.
+     * Returns an unmodifiable view of the children of this node. In contrast to {@link #getChildren()}, the children
+     * are not copied, so subsequent changes of this node are visible in the view.
+     *
+     * @return the children of this node
+     */
+    public List<Node> childrenView() {
+        var frozenList = frozenChildren;
+        if (frozenList != null) {
+            return frozenList;
+        }
+        return Collections.unmodifiableList(children);
+    }
+
+    /**
+     * Returns the child at the specified position.
+     *
+     * @param index
+     *         the index of the child
+     *
+     * @return the child at the specified position
+     */
+    Node getChild(final int index) {
+        return children.get(index);
+    }
+
+    /**
+     * Returns the metrics of all nodes in the subtree of this node, excluding the metric of this node. The metrics are
+     * computed for all nodes of the subtree in a single post-order walk, see {@link TreeWalker}.
+     *
+     * @return the metrics of the descendants
+     */
+    Set<Metric> getMetricsOfDescendants() {
+        var cached = metricsOfDescendants;
+        if (cached != null) {
+            return cached;
+        }
+
+        var visitor = new DescendantMetricsVisitor();
+        new TreeWalker(this).walk(visitor);
+        return visitor.getMetrics();
+    }
+
+    /**
+     * Returns the number of nodes in the subtree spanned by this node, including this node.
+     *
+     * @return the number of nodes in this subtree
+     */
+    int getSubtreeSize() {
+        if (subtreeSize == 0) {
+            new TreeWalker(this).walk(new SubtreeSizeVisitor());
+        }
+        return subtreeSize;
+    }
+
+    /**
+     * Returns whether the aggregated values of all metrics have been computed for this subtree.
+     *
+     * @return {@code true} if all aggregated values are available, {@code false} otherwise
+     */
+    boolean hasAllAggregatedValues() {
+        return isFullyAggregated;
+    }
+
+    /**
+     * Invokes the typed callback of the specified visitor for this node.
+     *
+     * @param visitor
+     *         the visitor to invoke
+     *
+     * @return the result of the visitor
+     */
+    VisitResult accept(final NodeVisitor visitor) {
+        return visitor.visitNode(this);
+    }
+
+    /**
+     * Returns the number of children of this node.
+     *
+     * @return the number of children
+     */
+    public int childCount() {
+        return children.size();
+    }
+
+    /**
+     * Performs the given action for each child of this node, without copying the list of children.
+     *
+     * @param action
+     *         the action to be performed for each child
+     */
+    public void forEachChild(final Consumer<? super Node> action) {
+        children.forEach(action);
+    }
+
+    /**
+     * Returns a {@link Spliterator} over the children of this node, without copying the list of children.
+     *
+     * @return a spliterator over the children
+     */
+    public Spliterator<Node> childrenSpliterator() {
+        return childrenView().spliterator();
+    }
+
+    /**
+     * Appends the specified child element to the list of children. Since the parent of the child will be changed, the
+     * child must not be frozen: use a copy of a frozen node instead, see {@link #copyTree()}.
      *
      * @param child
      *         the child to add
      */
     public void addChild(final Node child) {
+        ensureMutable();
+        child.ensureMutable();
+
         if (hasChild(child.getId())) {
             throw new IllegalArgumentException(
                     "There is already the same child %s with the name %s in %s".formatted(
@@ -180,15 +510,27 @@ public abstract class Node implements Serializable {
         }
 
         children.add(child);
+        getChildrenById().put(child.getId(), child);
         child.setParent(this);
+        childAdded(child);
+        child.clearRegistry();
+        invalidateAggregatedValues();
+
+        findExistingRegistry().ifPresent(registry -> registry.register(child));
     }
 
     @SuppressWarnings("PMD.NullAssignment") // remove link to parent
     protected void removeChild(final Node child) {
+        ensureMutable();
         Ensure.that(children.contains(child)).isTrue("The node %s is not a child of this node %s", child, this);
 
+        findExistingRegistry().ifPresent(registry -> registry.unregister(child));
+
         children.remove(child);
+        getChildrenById().remove(child.getId());
         child.parent = null;
+        childRemoved(child);
+        invalidateAggregatedValues();
     }
 
     /**
@@ -200,7 +542,7 @@ public abstract class Node implements Serializable {
      * @return {@code true} if this node has a child with the specified name, {@code false} otherwise
      */
     public boolean hasChild(final String childName) {
-        return children.stream().map(Node::getId).anyMatch(childName::equals);
+        return getChildrenById().containsKey(childName);
     }
 
     /**
@@ -260,10 +602,45 @@ public abstract class Node implements Serializable {
         this.parent = Objects.requireNonNull(parent);
     }
 
+    /**
+     * Returns the values of this node. If this node has been frozen, then the same unmodifiable list is returned on
+     * every call, since the values cannot change anymore (see {@link #freeze()}). Otherwise, an unmodifiable copy of
+     * the values is returned, so subsequent changes of this node are not visible in the returned list.
+     *
+     * @return the values of this node
+     */
     public List<Value> getValues() {
+        var frozenList = frozenValues;
+        if (frozenList != null) {
+            return frozenList;
+        }
         return List.copyOf(values);
     }
 
+    /**
+     * Returns an unmodifiable view of the values of this node. In contrast to {@link #getValues()}, the values are not
+     * copied, so subsequent changes of this node are visible in the view.
+     *
+     * @return the values of this node
+     */
+    public List<Value> valuesView() {
+        var frozenList = frozenValues;
+        if (frozenList != null) {
+            return frozenList;
+        }
+        return Collections.unmodifiableList(values);
+    }
+
+    /**
+     * Performs the given action for each value of this node, without copying the list of values.
+     *
+     * @param action
+     *         the action to be performed for each value
+     */
+    public void forEachValue(final Consumer<? super Value> action) {
+        values.forEach(action);
+    }
+
     /**
      * Appends the specified value to the list of values.
      *
@@ -271,7 +648,7 @@ public abstract class Node implements Serializable {
      *         the value to add
      */
     public void addValue(final Value value) {
-        if (getMetricsOfValues().anyMatch(value.getMetric()::equals)) {
+        if (getLocalValue(value.getMetric()) != null) {
             throw new IllegalArgumentException(
                     "There is already a leaf %s with the metric %s".formatted(value, value.getMetric()));
         }
@@ -286,11 +663,46 @@ public abstract class Node implements Serializable {
      *         the value to replace
      */
     public void replaceValue(final Value value) {
-        values.stream()
-                .filter(v -> v.getMetric().equals(value.getMetric()))
-                .findAny()
-                .ifPresent(values::remove);
+        ensureMutable();
+
+        var index = getValuesByMetric();
+        int ordinal = value.getMetric().ordinal();
+        var existing = index[ordinal];
+        if (existing != null) {
+            values.remove(existing);
+        }
         values.add(value);
+        index[ordinal] = value;
+
+        invalidateAggregatedValues();
+    }
+
+    /**
+     * Returns the value of this node for the specified metric. In contrast to {@link #getValue(Metric)}, the value is
+     * not aggregated for the subtree: only the values that are stored in this node are considered.
+     *
+     * @param searchMetric
+     *         the metric to get the value for
+     *
+     * @return the value of this node, or {@code null} if this node has no value for the specified metric
+     */
+    @CheckForNull
+    @SuppressWarnings("EnumOrdinal") // the index is an array of the values ordered by the ordinal of the metric
+    Value getLocalValue(final Metric searchMetric) {
+        return getValuesByMetric()[searchMetric.ordinal()];
+    }
+
+    @SuppressWarnings("EnumOrdinal") // the index is an array of the values ordered by the ordinal of the metric
+    private Value[] getValuesByMetric() {
+        var index = valuesByMetric;
+        if (index == null) {
+            index = new Value[Metric.values().length];
+            for (Value value : values) {
+                index[value.getMetric().ordinal()] = value;
+            }
+            valuesByMetric = index;
+        }
+        return index;
     }
 
     protected void addAllValues(final Collection<? extends Value> additionalValues) {
@@ -300,15 +712,27 @@ public abstract class Node implements Serializable {
     /**
      * Returns the available metrics for the whole tree starting with this node.
      *
-     * @return the elements in this tree
+     * @return the elements in this tree (unmodifiable)
      */
     public NavigableSet<Metric> getValueMetrics() {
-        NavigableSet<Metric> elements = children.stream()
-                .map(Node::getValueMetrics)
-                .flatMap(Collection::stream)
-                .collect(Collectors.toCollection(TreeSet::new));
+        var view = valueMetricsView;
+        if (view == null) {
+            view = Collections.unmodifiableNavigableSet(new TreeSet<>(getMetricsOfValuesInTree()));
+            valueMetricsView = view;
+        }
+        return view;
+    }
 
+    private Set<Metric> getMetricsOfValuesInTree() {
+        var cached = valueMetrics;
+        if (cached != null) {
+            return cached;
+        }
+
+        var elements = EnumSet.noneOf(Metric.class);
+        children.forEach(child -> elements.addAll(child.getMetricsOfValuesInTree()));
         getMetricsOfValues().forEach(elements::add);
+        valueMetrics = elements;
         return elements;
     }
 
@@ -330,8 +754,118 @@ public abstract class Node implements Serializable {
      *
      * @return the value for the specified metric or an empty result if no value has been defined
      */
+    @SuppressWarnings("EnumOrdinal") // the cache is indexed by the ordinal of the metric
     public Optional<Value> getValue(final Metric searchMetric) {
-        return searchMetric.getValueFor(this);
+        var cache = getAggregatedValues();
+        var index = searchMetric.ordinal();
+        var value = cache[index];
+        if (value == null) {
+            value = searchMetric.getValueFor(this);
+            cache[index] = value;
+        }
+        return value;
+    }
+
+    @SuppressWarnings({"unchecked", "PMD.MethodReturnsInternalArray"})
+    private Optional<Value>[] getAggregatedValues() {
+        var cache = aggregatedValues;
+        if (cache == null) {
+            cache = new Optional[Metric.values().length];
+            aggregatedValues = cache;
+        }
+        return cache;
+    }
+
+    /**
+     * Invalidates the cached aggregated values of this node and all of its ancestors. This method needs to be called
+     * whenever a value or a child in the subtree of this node changes.
+     */
+    @SuppressWarnings("PMD.NullAssignment") // the cache will be recreated on demand
+    void invalidateAggregatedValues() {
+        for (var node = this; node != null; node = node.parent) {
+            node.aggregatedValues = null;
+            node.aggregatedMetrics = null;
+            node.aggregatedMetricsView = null;
+            node.valueMetrics = null;
+            node.valueMetricsView = null;
+            node.metricsOfDescendants = null;
+            node.subtreeSize = 0;
+            node.isFullyAggregated = false;
+        }
+    }
+
+    /**
+     * Computes the aggregated values of all metrics for all nodes of the subtree spanned by this node. The subtree is
+     * visited only once in post-order: the values of a node are computed from the already aggregated values of its
+     * children. Metrics that are not available in a subtree are stored as empty values so that no further traversal
+     * is required. The aggregated values are kept until the subtree is modified.
+     */
+    void aggregateAllValues() {
+        aggregateAllValues(null);
+    }
+
+    /**
+     * Computes the aggregated values of all metrics for all nodes of the subtree spanned by this node, see
+     * {@link #aggregateAllValues()}.
+     *
+     * @param aggregatedNodes
+     *         if not {@code null}, all nodes whose values have been aggregated by this call will be added to this list
+     */
+    @SuppressWarnings({"unchecked", "EnumOrdinal"}) // the cache is indexed by the ordinal of the metric
+    private void aggregateAllValues(@CheckForNull final List<Node> aggregatedNodes) {
+        if (isFullyAggregated) {
+            return;
+        }
+
+        children.forEach(child -> child.aggregateAllValues(aggregatedNodes));
+
+        var metrics = getAggregatedMetrics();
+        Optional<Value>[] cache = new Optional[Metric.values().length];
+        for (Metric searchMetric : Metric.values()) {
+            cache[searchMetric.ordinal()] = metrics.contains(searchMetric)
+                    ? searchMetric.getValueFor(this) : Optional.empty();
+        }
+        aggregatedMetrics = metrics;
+        aggregatedValues = cache;
+        isFullyAggregated = true;
+        if (aggregatedNodes != null) {
+            aggregatedNodes.add(this);
+        }
+    }
+
+    /**
+     * Aggregates the values of all metrics for the subtree spanned by this node in a single post-order pass, see
+     * {@link #aggregateAllValues()}. In contrast to {@link #aggregateAllValues()}, the aggregated values are not kept:
+     * read-only operations like {@link #aggregateValues()} or {@link #computeDelta(Node)} must not change the state
+     * of the nodes.
+     *
+     * @param reader
+     *         the function that reads the result from the aggregated values of this node
+     * @param <T>
+     *         the type of the result
+     *
+     * @return the result of the reader
+     */
+    @SuppressWarnings("PMD.NullAssignment") // the values will be aggregated again on demand
+    private <T> T withAggregatedValues(final Supplier<T> reader) {
+        if (isFullyAggregated) {
+            return reader.get();
+        }
+
+        List<Node> aggregatedNodes = new ArrayList<>();
+        try {
+            aggregateAllValues(aggregatedNodes);
+
+            return reader.get();
+        }
+        finally {
+            for (Node node : aggregatedNodes) {
+                node.aggregatedValues = null;
+                node.aggregatedMetrics = null;
+                node.aggregatedMetricsView = null;
+                node.isFullyAggregated = false;
+            }
+        }
     }
 
     /**
@@ -348,7 +882,7 @@ public abstract class Node implements Serializable {
      * @return coverage ratio
      */
     public <T extends Value> T getTypedValue(final Metric searchMetric, final T defaultValue) {
-        var possiblyValue = searchMetric.getValueFor(this);
+        var possiblyValue = getValue(searchMetric);
 
         //noinspection unchecked
         return possiblyValue.map(value -> (T) defaultValue.getClass().cast(value)).orElse(defaultValue);
@@ -360,11 +894,10 @@ public abstract class Node implements Serializable {
      * @return aggregation of values below this tree
      */
     public List<Value> aggregateValues() {
-        return getMetrics().stream()
-                .sorted()
+        return withAggregatedValues(() -> getAggregatedMetrics().stream()
                 .map(this::getValue)
                 .flatMap(Optional::stream)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     /**
@@ -400,13 +933,17 @@ public abstract class Node implements Serializable {
      * @return all nodes for the given metric
      */
     public List<Node> getAll(final Metric searchMetric) {
-        List<Node> childNodes = children.stream()
-                .map(child -> child.getAll(searchMetric))
-                .flatMap(List::stream).collect(Collectors.toList());
-        if (metric.equals(searchMetric)) {
-            childNodes.add(this);
-        }
-        return childNodes;
+        List<Node> nodes = new ArrayList<>();
+        new TreeWalker(this, searchMetric).walk(new NodeVisitor() {
+            @Override
+            public VisitResult leaveNode(final Node node) {
+                if (node.getMetric().equals(searchMetric)) {
+                    nodes.add(node);
+                }
+                return VisitResult.CONTINUE;
+            }
+        });
+        return nodes;
     }
 
     private <T extends Node> List<T> getAll(final Metric searchMetric, final Function<Node, T> cast) {
@@ -436,13 +973,21 @@ public abstract class Node implements Serializable {
      * @return the result if found
      */
     public Optional<Node> find(final Metric searchMetric, final String searchName) {
-        if (matches(searchMetric, searchName)) {
-            return Optional.of(this);
+        var registry = findRegistry();
+        if (registry.isPresent()) {
+            return registry.get().find(this, searchMetric, searchName, () -> searchTree(searchMetric, searchName));
         }
-        return children.stream()
-                .map(child -> child.find(searchMetric, searchName))
-                .flatMap(Optional::stream)
-                .findAny();
+        return searchTree(searchMetric, searchName);
+    }
+
+    private Optional<Node> searchTree(final Metric searchMetric, final String searchName) {
+        return searchTree(searchMetric, node -> node.matches(searchMetric, searchName));
+    }
+
+    private Optional<Node> searchTree(final Metric searchMetric, final Predicate<Node> criterion) {
+        var search = new FirstMatchVisitor(criterion);
+        new TreeWalker(this, searchMetric).walk(search);
+        return search.getMatch();
     }
 
     /**
@@ -470,6 +1015,15 @@ public abstract class Node implements Serializable {
     }
 
     private Optional<FileNode> findFile(final String fileName, final String relativePath) {
+        var registry = findRegistry();
+        if (registry.isPresent()) {
+            return registry.get().findFile(this, fileName, relativePath,
+                    () -> searchFile(fileName, relativePath).map(Node.class::cast)).map(FileNode.class::cast);
+        }
+        return searchFile(fileName, relativePath);
+    }
+
+    private Optional<FileNode> searchFile(final String fileName, final String relativePath) {
         return getAllFileNodes().stream().filter(fileNode ->
                 fileNode.getName().equals(fileName)
                         && fileNode.getRelativePath().equals(relativePath)).findAny();
@@ -505,18 +1059,38 @@ public abstract class Node implements Serializable {
                 .findAny();
     }
 
+    /**
+     * Returns all mutations of the files in the subtree spanned by this node.
+     *
+     * @return the mutations of all files
+     */
     public List<Mutation> getMutations() {
-        return getChildren().stream()
-                .map(Node::getMutations)
-                .flatMap(Collection::stream)
-                .collect(Collectors.toList());
+        List<Mutation> mutations = new ArrayList<>();
+        new TreeWalker(this, Metric.FILE).walk(new NodeVisitor() {
+            @Override
+            public VisitResult visitFile(final FileNode file) {
+                mutations.addAll(file.getMutations());
+                return VisitResult.SKIP_CHILDREN;
+            }
+        });
+        return mutations;
     }
 
+    /**
+     * Returns all test cases of the classes in the subtree spanned by this node.
+     *
+     * @return the test cases of all classes
+     */
     public List<TestCase> getTestCases() {
-        return getChildren().stream()
-                .map(Node::getTestCases)
-                .flatMap(Collection::stream)
-                .collect(Collectors.toList());
+        List<TestCase> testCases = new ArrayList<>();
+        new TreeWalker(this, Metric.CLASS).walk(new NodeVisitor() {
+            @Override
+            public VisitResult visitClass(final ClassNode classNode) {
+                testCases.addAll(classNode.getTestCases());
+                return VisitResult.SKIP_CHILDREN;
+            }
+        });
+        return testCases;
     }
 
     /**
@@ -525,7 +1099,15 @@ public abstract class Node implements Serializable {
      * @return the file names
      */
     public Set<String> getFiles() {
-        return children.stream().map(Node::getFiles).flatMap(Collection::stream).collect(Collectors.toSet());
+        Set<String> files = new HashSet<>();
+        new TreeWalker(this, Metric.FILE).walk(new NodeVisitor() {
+            @Override
+            public VisitResult visitFile(final FileNode file) {
+                files.addAll(file.getFiles());
+                return VisitResult.SKIP_CHILDREN;
+            }
+        });
+        return files;
     }
 
     /**
@@ -539,13 +1121,7 @@ public abstract class Node implements Serializable {
      * @return the result if found
      */
     public Optional<Node> findByHashCode(final Metric searchMetric, final int searchNameHashCode) {
-        if (matches(searchMetric, searchNameHashCode)) {
-            return Optional.of(this);
-        }
-        return children.stream()
-                .map(child -> child.findByHashCode(searchMetric, searchNameHashCode))
-                .flatMap(Optional::stream)
-                .findAny();
+        return searchTree(searchMetric, node -> node.matches(searchMetric, searchNameHashCode));
     }
 
     /**
@@ -576,6 +1152,72 @@ public abstract class Node implements Serializable {
         return metric.equals(searchMetric) && getId().hashCode() == searchNameHashCode;
     }
 
+    /**
+     * Freezes the tree spanned by this node so that it cannot be modified anymore. Before the nodes are marked as
+     * frozen, all aggregated values, metrics, and indices of the tree are computed. Afterward, reading a frozen tree
+     * neither modifies any state nor creates defensive copies: {@link #getChildren()} and {@link #getValues()} return
+     * compact unmodifiable lists. So a frozen tree can be traversed concurrently by any number of threads without
+     * locks, provided that the tree has been published safely, e.g., using a {@code volatile} field. All methods that
+     * modify a frozen node will fail. Copies (see {@link #copyTree()}) and deserialized instances of a frozen tree are
+     * not frozen.
+     *
+     * @return this node
+     */
+    @CanIgnoreReturnValue
+    public Node freeze() {
+        aggregateAllValues();
+        getSubtreeSize();
+        getRegistry();
+
+        freezeSubtree();
+
+        return this;
+    }
+
+    private void freezeSubtree() {
+        if (frozen) {
+            return;
+        }
+
+        children.forEach(Node::freezeSubtree);
+
+        getChildrenById();
+        getValuesByMetric();
+        getMetricsOfDescendants();
+        getMetrics();
+        getValueMetrics();
+        freezeNode();
+
+        frozenChildren = List.copyOf(children);
+        frozenValues = List.copyOf(values);
+        frozen = true;
+    }
+
+    /**
+     * Prepares this node to be frozen. Subclasses need to compute all caches that otherwise would be created on demand
+     * when reading the node.
+     */
+    void freezeNode() {
+        // no additional caches in the default implementation
+    }
+
+    /**
+     * Returns whether this node has been frozen and cannot be modified anymore.
+     *
+     * @return {@code true} if this node has been frozen, {@code false} otherwise
+     * @see #freeze()
+     */
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Ensures that this node can be modified, i.e., it has not been frozen yet.
+     */
+    void ensureMutable() {
+        Ensure.that(frozen).isFalse("The node %s has been frozen and cannot be modified", getName());
+    }
+
     /**
      * Creates a deep copy of the tree with this as root node.
      *
@@ -613,7 +1255,7 @@ public abstract class Node implements Serializable {
         if (copiedParent != null) {
             copy.setParent(copiedParent);
         }
-        getChildren().stream()
+        children.stream()
                 .filter(filter::apply)
                 .map(node -> node.copyTree(this, filter))
                 .forEach(copy::addChild);
@@ -647,7 +1289,7 @@ public abstract class Node implements Serializable {
      */
     public final Node copyNode() {
         var copy = copy();
-        getValues().forEach(copy::addValue);
+        values.forEach(copy::addValue);
         return copy;
     }
 
@@ -675,7 +1317,7 @@ public abstract class Node implements Serializable {
                 .reduce(Value::add)
                 .map(Value::asInteger)
                 .orElse(0);
-        addValue(new Value(Metric.TESTS, totalTests));
+        addValue(Value.valueOf(Metric.TESTS, totalTests));
 
         return testClassNodes.stream()
                 .map(this::mapTestClass)
@@ -731,7 +1373,8 @@ public abstract class Node implements Serializable {
         }
 
         for (List<Node> matching : grouped.values()) {
-            container.addChild(merge(matching));
+            var merged = merge(matching);
+            container.addChild(merged.isFrozen() ? merged.copyTree() : merged);
         }
         return container;
     }
@@ -779,9 +1422,8 @@ public abstract class Node implements Serializable {
 
         removeValues(); // clear all values
 
-        other.getChildren().forEach(otherChild -> {
-            Optional<Node> existingChild = getChildren().stream()
-                    .filter(c -> c.getId().equals(otherChild.getId())).findFirst();
+        other.forEachChild(otherChild -> {
+            Optional<Node> existingChild = findChild(otherChild.getId());
             if (existingChild.isPresent()) {
                 existingChild.get().mergeNode(otherChild);
             }
@@ -791,12 +1433,25 @@ public abstract class Node implements Serializable {
         });
     }
 
+    @SuppressWarnings("PMD.NullAssignment") // the index will be recreated on demand
     void removeValues() {
+        ensureMutable();
+
         values.clear();
+        valuesByMetric = null;
+
+        invalidateAggregatedValues();
     }
 
     void removeChildren() {
+        ensureMutable();
+
+        findExistingRegistry().ifPresent(registry -> children.forEach(registry::unregister));
+
         children.clear();
+        invalidateIndexOfChildren();
+
+        invalidateAggregatedValues();
     }
 
     @Override
@@ -821,12 +1476,12 @@ public abstract class Node implements Serializable {
     public String toString() {
         return getValue(Metric.LINE)
                 .map(lineCoverage -> String.format(Locale.ENGLISH, "[%s] %s <%d, %s>",
-                        getMetric(), getName(), getChildren().size(), lineCoverage))
+                        getMetric(), getName(), children.size(), lineCoverage))
                 .orElse(String.format(Locale.ENGLISH, "[%s] %s <%d>", getMetric(), getName(), children.size()));
     }
 
     public boolean isEmpty() {
-        return getChildren().isEmpty() && getValues().isEmpty();
+        return children.isEmpty() && values.isEmpty();
     }
 
     /**
@@ -835,7 +1490,7 @@ public abstract class Node implements Serializable {
      * @return {@code true} whether code changes have been detected
      */
     public boolean hasModifiedLines() {
-        return getChildren().stream().anyMatch(Node::hasModifiedLines);
+        return children.stream().anyMatch(Node::hasModifiedLines);
     }
 
     /**
@@ -891,8 +1546,7 @@ public abstract class Node implements Serializable {
      * @return the root of the pruned coverage tree
      */
     private Optional<Node> filterTreeByMapping(final Function<Node, Optional<Node>> mappingFunction) {
-        var prunedChildren = getChildren()
-                .stream()
+        var prunedChildren = children.stream()
                 .map(mappingFunction)
                 .flatMap(Optional::stream)
                 .collect(Collectors.toList());
@@ -1020,4 +1674,89 @@ public abstract class Node implements Serializable {
      * @return {@code true} if this node is an aggregation node, {@code false} otherwise
      */
     public abstract boolean isAggregation();
+
+    /**
+     * Computes the number of nodes of all subtrees in post-order. Subtrees with a known size are skipped.
+     */
+    private static final class SubtreeSizeVisitor implements NodeVisitor {
+        @Override
+        public VisitResult visitNode(final Node node) {
+            return node.subtreeSize == 0 ? VisitResult.CONTINUE : VisitResult.SKIP_CHILDREN;
+        }
+
+        @Override
+        public VisitResult leaveNode(final Node node) {
+            if (node.subtreeSize == 0) {
+                var size = 1;
+                for (Node child : node.children) {
+                    size += child.subtreeSize;
+                }
+                node.subtreeSize = size;
+            }
+            return VisitResult.CONTINUE;
+        }
+    }
+
+    /**
+     * Computes the metrics of the descendants of all subtrees in post-order. Subtrees with known metrics are skipped.
+     */
+    private static final class DescendantMetricsVisitor implements NodeVisitor {
+        private Set<Metric> metrics = EnumSet.noneOf(Metric.class);
+
+        @Override
+        public VisitResult visitNode(final Node node) {
+            return node.metricsOfDescendants == null ? VisitResult.CONTINUE : VisitResult.SKIP_CHILDREN;
+        }
+
+        @Override
+        public VisitResult leaveNode(final Node node) {
+            var cached = node.metricsOfDescendants;
+            if (cached == null) {
+                var elements = EnumSet.noneOf(Metric.class);
+                for (Node child : node.children) {
+                    elements.add(child.getMetric());
+                    elements.addAll(Objects.requireNonNull(child.metricsOfDescendants));
+                }
+                node.metricsOfDescendants = elements;
+                cached = elements;
+            }
+            metrics = cached;
+            return VisitResult.CONTINUE;
+        }
+
+        /**
+         * Returns the metrics of the descendants of the node that has been left last, i.e., the root of the walk.
+         *
+         * @return the metrics of the descendants
+         */
+        Set<Metric> getMetrics() {
+            return metrics;
+        }
+    }
+
+    /**
+     * Searches for the first node in pre-order that satisfies a given criterion.
+     */
+    private static final class FirstMatchVisitor implements NodeVisitor {
+        private final Predicate<Node> criterion;
+        @CheckForNull
+        private Node match;
+
+        FirstMatchVisitor(final Predicate<Node> criterion) {
+            this.criterion = criterion;
+        }
+
+        @Override
+        public VisitResult visitNode(final Node node) {
+            if (criterion.test(node)) {
+                match = node;
+                return VisitResult.TERMINATE;
+            }
+            return VisitResult.CONTINUE;
+        }
+
+        Optional<Node> getMatch() {
+            return Optional.ofNullable(match);
+        }
+    }
 }
@@ -0,0 +1,142 @@
+package edu.hm.hafner.coverage;
+
+import org.apache.commons.lang3.tuple.ImmutablePair;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+
+/**
+ * A registry of all nodes in a tree of {@link Node nodes}. The registry maps the metric and name of a node to the
+ * actual node instances so that searching for a node does not require a traversal of the whole tree. The registry
+ * needs to be updated whenever a node is attached to or detached from the tree.
+ *
+ * @author Ullrich Hafner
+ */
+final class NodeRegistry {
+    private final Map<ImmutablePair<Metric, String>, List<Node>> nodesByName = new HashMap<>();
+    private final Map<ImmutablePair<String, String>, List<Node>> filesByPath = new HashMap<>();
+
+    /**
+     * Creates a new registry that contains all nodes of the tree spanned by the specified root.
+     *
+     * @param root
+     *         the root of the tree
+     */
+    NodeRegistry(final Node root) {
+        register(root);
+    }
+
+    /**
+     * Registers the specified node and all of its descendants.
+     *
+     * @param node
+     *         the root of the subtree to register
+     */
+    void register(final Node node) {
+        if (node instanceof FileNode fileNode) {
+            add(nodesByName, new ImmutablePair<>(Metric.FILE, fileNode.getRelativePath()), node);
+            if (!fileNode.getName().equals(fileNode.getRelativePath())) {
+                add(nodesByName, new ImmutablePair<>(Metric.FILE, fileNode.getName()), node);
+            }
+            add(filesByPath, new ImmutablePair<>(fileNode.getName(), fileNode.getRelativePath()), node);
+        }
+        else {
+            add(nodesByName, new ImmutablePair<>(node.getMetric(), node.getId()), node);
+        }
+        node.forEachChild(this::register);
+    }
+
+    /**
+     * Removes the specified node and all of its descendants from this registry.
+     *
+     * @param node
+     *         the root of the subtree to remove
+     */
+    void unregister(final Node node) {
+        if (node instanceof FileNode fileNode) {
+            remove(nodesByName, new ImmutablePair<>(Metric.FILE, fileNode.getRelativePath()), node);
+            remove(nodesByName, new ImmutablePair<>(Metric.FILE, fileNode.getName()), node);
+            remove(filesByPath, new ImmutablePair<>(fileNode.getName(), fileNode.getRelativePath()), node);
+        }
+        else {
+            remove(nodesByName, new ImmutablePair<>(node.getMetric(), node.getId()), node);
+        }
+        node.forEachChild(this::unregister);
+    }
+
+    private static <K> void add(final Map<K, List<Node>> map, final K key, final Node node) {
+        map.computeIfAbsent(key, k -> new ArrayList<>(1)).add(node);
+    }
+
+    @SuppressWarnings({"ReferenceEquality", "PMD.CompareObjectsWithEquals"})
+    private static <K> void remove(final Map<K, List<Node>> map, final K key, final Node node) {
+        var nodes = map.get(key);
+        if (nodes != null) {
+            nodes.removeIf(n -> n == node);
+            if (nodes.isEmpty()) {
+                map.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Finds the node with the given metric and name in the subtree of the specified node.
+     *
+     * @param scope
+     *         the root of the subtree to search in
+     * @param searchMetric
+     *         the metric of the node
+     * @param searchName
+     *         the name of the node
+     * @param fallback
+     *         the search to invoke if the result is not unique within the subtree
+     *
+     * @return the result if found
+     */
+    Optional<Node> find(final Node scope, final Metric searchMetric, final String searchName,
+            final Supplier<Optional<Node>> fallback) {
+        return findUnique(nodesByName.get(new ImmutablePair<>(searchMetric, searchName)), scope, fallback);
+    }
+
+    /**
+     * Finds the file with the given name and relative path in the subtree of the specified node.
+     *
+     * @param scope
+     *         the root of the subtree to search in
+     * @param fileName
+     *         the name of the file
+     * @param relativePath
+     *         the relative path of the file
+     * @param fallback
+     *         the search to invoke if the result is not unique within the subtree
+     *
+     * @return the result if found
+     */
+    Optional<Node> findFile(final Node scope, final String fileName, final String relativePath,
+            final Supplier<Optional<Node>> fallback) {
+        return findUnique(filesByPath.get(new ImmutablePair<>(fileName, relativePath)), scope, fallback);
+    }
+
+    private Optional<Node> findUnique(@CheckForNull final List<Node> candidates, final Node scope,
+            final Supplier<Optional<Node>> fallback) {
+        if (candidates == null) {
+            return Optional.empty();
+        }
+        Node match = null;
+        for (Node candidate : candidates) {
+            if (candidate.isDescendantOf(scope)) {
+                if (match != null) {
+                    return fallback.get(); // the search order of the tree decides which node is found first
+                }
+                match = candidate;
+            }
+        }
+        return Optional.ofNullable(match);
+    }
+}
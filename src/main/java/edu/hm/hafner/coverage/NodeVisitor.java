@@ -0,0 +1,122 @@
+package edu.hm.hafner.coverage;
+
+/**
+ * A visitor for the nodes of a coverage tree, see {@link TreeWalker}. The visitor provides typed callbacks for each
+ * concrete type of {@link Node}. These callbacks are invoked before the children of a node are visited (pre-order).
+ * Additionally, the callback {@link #leaveNode(Node)} is invoked after all children of a node have been visited
+ * (post-order). All callbacks return a {@link VisitResult} that controls how the traversal continues. By default, all
+ * typed callbacks delegate to {@link #visitNode(Node)}, which continues the traversal.
+ *
+ * @author Ullrich Hafner
+ */
+public interface NodeVisitor {
+    /**
+     * Determines how a traversal continues after a node has been visited.
+     */
+    enum VisitResult {
+        /** Continue the traversal with the children of the visited node. */
+        CONTINUE,
+        /** Continue the traversal, but skip the children of the visited node. */
+        SKIP_CHILDREN,
+        /** Stop the traversal immediately. */
+        TERMINATE
+    }
+
+    /**
+     * Visits the specified node before its children are visited. This callback is invoked for all nodes that have no
+     * specific callback, and it is the default implementation of all typed callbacks.
+     *
+     * @param node
+     *         the visited node
+     *
+     * @return the result that controls how the traversal continues
+     */
+    default VisitResult visitNode(final Node node) {
+        return VisitResult.CONTINUE;
+    }
+
+    /**
+     * Visits the specified container before its children are visited.
+     *
+     * @param container
+     *         the visited container
+     *
+     * @return the result that controls how the traversal continues
+     */
+    default VisitResult visitContainer(final ContainerNode container) {
+        return visitNode(container);
+    }
+
+    /**
+     * Visits the specified module before its children are visited.
+     *
+     * @param module
+     *         the visited module
+     *
+     * @return the result that controls how the traversal continues
+     */
+    default VisitResult visitModule(final ModuleNode module) {
+        return visitNode(module);
+    }
+
+    /**
+     * Visits the specified package before its children are visited.
+     *
+     * @param packageNode
+     *         the visited package
+     *
+     * @return the result that controls how the traversal continues
+     */
+    default VisitResult visitPackage(final PackageNode packageNode) {
+        return visitNode(packageNode);
+    }
+
+    /**
+     * Visits the specified file before its children are visited.
+     *
+     * @param file
+     *         the visited file
+     *
+     * @return the result that controls how the traversal continues
+     */
+    default VisitResult visitFile(final FileNode file) {
+        return visitNode(file);
+    }
+
+    /**
+     * Visits the specified class before its children are visited.
+     *
+     * @param classNode
+     *         the visited class
+     *
+     * @return the result that controls how the traversal continues
+     */
+    default VisitResult visitClass(final ClassNode classNode) {
+        return visitNode(classNode);
+    }
+
+    /**
+     * Visits the specified method before its children are visited.
+     *
+     * @param method
+     *         the visited method
+     *
+     * @return the result that controls how the traversal continues
+     */
+    default VisitResult visitMethod(final MethodNode method) {
+        return visitNode(method);
+    }
+
+    /**
+     * Leaves the specified node after all of its children have been visited. This callback is also invoked for nodes
+     * whose children have been skipped. Only {@link VisitResult#TERMINATE} has an effect on the traversal.
+     *
+     * @param node
+     *         the visited node
+     *
+     * @return the result that controls how the traversal continues
+     */
+    default VisitResult leaveNode(final Node node) {
+        return VisitResult.CONTINUE;
+    }
+}
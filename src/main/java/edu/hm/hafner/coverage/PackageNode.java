@@ -49,6 +49,11 @@ public final class PackageNode extends Node {
         return localParent;
     }
 
+    @Override
+    NodeVisitor.VisitResult accept(final NodeVisitor visitor) {
+        return visitor.visitPackage(this);
+    }
+
     @Override
     public PackageNode copy() {
         return new PackageNode(getName());
@@ -0,0 +1,92 @@
+package edu.hm.hafner.coverage;
+
+import edu.hm.hafner.util.Ensure;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Aggregates the values of all metrics of a tree of {@link Node nodes} in parallel. Independent subtrees (e.g., the
+ * modules or packages of a large report) are aggregated as separate tasks of a {@link ForkJoinPool}. Subtrees that
+ * contain fewer nodes than the configured threshold are not split anymore but aggregated sequentially. The values of a
+ * node are computed by the same evaluators that are used by {@link Node#getValue(Metric)}, so the results are the
+ * same as the results of a sequential aggregation. The computed values are stored in the caches of the nodes.
+ *
+ * <p>
+ * The tree must not be modified while the aggregation is running.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+@SuppressWarnings("PMD.DoNotUseThreads") // the aggregation of independent subtrees runs in a fork/join pool
+public final class ParallelAggregator {
+    /** The default number of nodes in a subtree that will not be split into several tasks. */
+    public static final int DEFAULT_THRESHOLD = 1000;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    /**
+     * Creates a new aggregator that uses the common pool and the default threshold.
+     */
+    public ParallelAggregator() {
+        this(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Creates a new aggregator.
+     *
+     * @param pool
+     *         the pool to run the aggregation tasks in
+     * @param threshold
+     *         the number of nodes in a subtree that will not be split into several tasks
+     */
+    public ParallelAggregator(final ForkJoinPool pool, final int threshold) {
+        Ensure.that(threshold > 0).isTrue("The threshold must be positive: %d", threshold);
+
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Aggregates the values of all metrics for all nodes of the tree spanned by the specified node.
+     *
+     * @param root
+     *         the root of the tree
+     *
+     * @return aggregation of values below the root, see {@link Node#aggregateValues()}
+     */
+    public List<Value> aggregateValues(final Node root) {
+        if (!root.hasAllAggregatedValues()) {
+            root.getSubtreeSize(); // compute all sizes before the tree is split
+            pool.invoke(new AggregationTask(root));
+        }
+        return root.aggregateValues();
+    }
+
+    private final class AggregationTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = -4379584720713548937L;
+
+        private final transient Node node;
+
+        AggregationTask(final Node node) {
+            super();
+
+            this.node = node;
+        }
+
+        @Override
+        protected void compute() {
+            if (node.getSubtreeSize() > threshold && !node.hasAllAggregatedValues()) {
+                List<AggregationTask> subtasks = new ArrayList<>(node.childCount());
+                node.forEachChild(child -> subtasks.add(new AggregationTask(child)));
+                invokeAll(subtasks);
+            }
+            node.aggregateAllValues(); // all children have been aggregated already
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package edu.hm.hafner.coverage;
+
+import edu.hm.hafner.coverage.NodeVisitor.VisitResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Walks through the tree spanned by a {@link Node} and invokes the callbacks of a {@link NodeVisitor} for each visited
+ * node. The walker uses an explicit stack rather than recursion, so the depth of the tree is not limited by the stack
+ * size of the current thread. Nodes are visited in pre-order, and after all children of a node have been visited the
+ * node is left in post-order.
+ *
+ * <p>
+ * The traversal can be restricted to a set of target metrics: then only those nodes are visited that have one of the
+ * target metrics or that contain such nodes in their subtree. E.g., if the target metric is {@link Metric#FILE}, then
+ * the walker does not descend into the classes and methods of a file.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+public final class TreeWalker {
+    private static final int INITIAL_DEPTH = 16;
+
+    private final Node root;
+    private final Set<Metric> targetMetrics;
+
+    /**
+     * Creates a new walker for the tree spanned by the specified node.
+     *
+     * @param root
+     *         the root of the tree
+     * @param targetMetrics
+     *         the metrics of the nodes to visit, if empty all nodes will be visited
+     */
+    public TreeWalker(final Node root, final Metric... targetMetrics) {
+        this.root = root;
+        this.targetMetrics = EnumSet.noneOf(Metric.class);
+        this.targetMetrics.addAll(Arrays.asList(targetMetrics));
+    }
+
+    /**
+     * Walks through the tree and invokes the callbacks of the specified visitor.
+     *
+     * @param visitor
+     *         the visitor to invoke for each visited node
+     *
+     * @return {@code true} if the whole tree has been visited, {@code false} if the visitor terminated the traversal
+     */
+    public boolean walk(final NodeVisitor visitor) {
+        var path = new Path();
+        if (!visit(root, visitor, path)) {
+            return false;
+        }
+        while (!path.isEmpty()) {
+            var node = path.top();
+            var index = path.nextChild();
+            if (index < node.childCount()) {
+                if (!visit(node.getChild(index), visitor, path)) {
+                    return false;
+                }
+            }
+            else {
+                path.pop();
+                if (visitor.leaveNode(node) == VisitResult.TERMINATE) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Visits the specified node. If the children of the node should be visited as well, then the node is pushed to the
+     * path. Otherwise, the node is left immediately.
+     *
+     * @param node
+     *         the node to visit
+     * @param visitor
+     *         the visitor to invoke
+     * @param path
+     *         the path from the root to the currently visited node
+     *
+     * @return {@code false} if the visitor terminated the traversal, {@code true} otherwise
+     */
+    private boolean visit(final Node node, final NodeVisitor visitor, final Path path) {
+        if (!isTarget(node)) {
+            return true;
+        }
+
+        var result = node.accept(visitor);
+        if (result == VisitResult.TERMINATE) {
+            return false;
+        }
+        if (result == VisitResult.CONTINUE && hasTargetDescendants(node)) {
+            path.push(node);
+            return true;
+        }
+        return visitor.leaveNode(node) != VisitResult.TERMINATE;
+    }
+
+    private boolean isTarget(final Node node) {
+        return targetMetrics.isEmpty() || targetMetrics.contains(node.getMetric()) || hasTargetDescendants(node);
+    }
+
+    private boolean hasTargetDescendants(final Node node) {
+        if (node.childCount() == 0) {
+            return false;
+        }
+        if (targetMetrics.isEmpty()) {
+            return true;
+        }
+        var descendants = node.getMetricsOfDescendants();
+        for (Metric target : targetMetrics) {
+            if (descendants.contains(target)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The path from the root to the currently visited node, along with the index of the next child to visit for each
+     * node of the path.
+     */
+    private static final class Path {
+        private final List<Node> nodes = new ArrayList<>();
+        private int[] nextChildren = new int[INITIAL_DEPTH];
+
+        boolean isEmpty() {
+            return nodes.isEmpty();
+        }
+
+        Node top() {
+            return nodes.get(nodes.size() - 1);
+        }
+
+        int nextChild() {
+            return nextChildren[nodes.size() - 1]++;
+        }
+
+        void push(final Node node) {
+            if (nodes.size() == nextChildren.length) {
+                nextChildren = Arrays.copyOf(nextChildren, nextChildren.length * 2);
+            }
+            nextChildren[nodes.size()] = 0;
+            nodes.add(node);
+        }
+
+        void pop() {
+            nodes.remove(nodes.size() - 1);
+        }
+    }
+}
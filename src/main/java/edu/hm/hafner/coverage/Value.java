@@ -11,7 +11,9 @@ import java.io.Serial;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Locale;
 import java.util.NoSuchElementException;
 import java.util.Objects;
@@ -82,6 +84,11 @@ public class Value implements Serializable, Comparable<Value> {
      */
     @SuppressWarnings("PMD.CyclomaticComplexity") // this is a factory method that selects the correct metric
     public static Value valueOf(final String stringRepresentation) {
+        var parsed = ValueParser.parse(stringRepresentation);
+        if (parsed != null) {
+            return parsed;
+        }
+
         var errorMessage = "Cannot convert '%s' to a valid Value instance.".formatted(stringRepresentation);
         try {
             var cleanedFormat = StringUtils.deleteWhitespace(stringRepresentation);
@@ -92,9 +99,9 @@ public class Value implements Serializable, Comparable<Value> {
                     return Coverage.valueOf(metric, value);
                 }
                 if (value.startsWith(Difference.DELTA)) {
-                    return new Difference(metric, readFraction(value, 1));
+                    return intern(new Difference(metric, readFraction(value, 1)));
                 }
-                return new Value(metric, readFraction(value, 0));
+                return intern(new Value(metric, readFraction(value, 0)));
             }
         }
         catch (NumberFormatException exception) {
@@ -103,6 +110,40 @@ public class Value implements Serializable, Comparable<Value> {
         throw new IllegalArgumentException(errorMessage);
     }
 
+    /**
+     * Returns a value with the specified integer. If the {@link ValuePool#getDefault() pool of values} is enabled,
+     * then a shared instance will be returned.
+     *
+     * @param metric
+     *         the metric of the value
+     * @param value
+     *         the value
+     *
+     * @return the value
+     */
+    public static Value valueOf(final Metric metric, final int value) {
+        return intern(new Value(metric, value));
+    }
+
+    /**
+     * Creates new {@link Value} instances from the provided string representations. Each string representation is
+     * converted in the same way as with {@link #valueOf(String)}.
+     *
+     * @param stringRepresentations
+     *         string representations to convert from
+     *
+     * @return the created values, in the order of the string representations
+     * @throws IllegalArgumentException
+     *         if one of the strings is not a valid cov instance
+     */
+    public static List<Value> parseAll(final CharSequence... stringRepresentations) {
+        var values = new ArrayList<Value>(stringRepresentations.length);
+        for (CharSequence stringRepresentation : stringRepresentations) {
+            values.add(valueOf(String.valueOf(stringRepresentation)));
+        }
+        return values;
+    }
+
     private static Fraction readFraction(final String value, final int beginIndex) {
         return Fraction.getFraction(value.substring(beginIndex).replace(':', '/'));
     }
@@ -116,7 +157,11 @@ public class Value implements Serializable, Comparable<Value> {
      * @return the {@code null} object
      */
     public static Value nullObject(final Metric metric) {
-        return new Value(metric, 0);
+        return valueOf(metric, 0);
+    }
+
+    private static <T extends Value> T intern(final T value) {
+        return ValuePool.getDefault().intern(value);
     }
 
     private final Metric metric;
@@ -206,6 +251,12 @@ public class Value implements Serializable, Comparable<Value> {
     public Value add(final Value other) {
         ensureSameMetricAndType(other);
 
+        if (isInteger() && other.isInteger()) {
+            long sum = (long) fraction.getNumerator() + other.fraction.getNumerator();
+            if (isIntegerRange(sum)) {
+                return new Value(getMetric(), (int) sum);
+            }
+        }
         return new Value(getMetric(), asSafeFraction().add(other.fraction));
     }
 
@@ -223,6 +274,12 @@ public class Value implements Serializable, Comparable<Value> {
     public Difference subtract(final Value other) {
         ensureSameMetricAndType(other);
 
+        if (isInteger() && other.isInteger()) {
+            long difference = (long) fraction.getNumerator() - other.fraction.getNumerator();
+            if (isIntegerRange(difference)) {
+                return new Difference(getMetric(), (int) difference);
+            }
+        }
         return new Difference(getMetric(), asSafeFraction().subtract(other.fraction));
     }
 
@@ -238,6 +295,9 @@ public class Value implements Serializable, Comparable<Value> {
     public Value max(final Value other) {
         ensureSameMetricAndType(other);
 
+        if (isInteger() && other.isInteger()) {
+            return fraction.getNumerator() < other.fraction.getNumerator() ? other : this;
+        }
         if (fraction.doubleValue() < other.fraction.doubleValue()) {
             return other;
         }
@@ -262,6 +322,22 @@ public class Value implements Serializable, Comparable<Value> {
         return fraction.doubleValue() > threshold;
     }
 
+    /**
+     * Returns whether this value is an integer, i.e., the denominator of the fraction is 1. Integer values are added,
+     * subtracted, and compared using exact long arithmetic of the numerators, so no common denominators need to be
+     * computed by {@link Fraction}. Only if the result does not fit into an integer the computation falls back to the
+     * fraction based arithmetic.
+     *
+     * @return {@code true} if this value is an integer, {@code false} otherwise
+     */
+    private boolean isInteger() {
+        return fraction.getDenominator() == 1;
+    }
+
+    private static boolean isIntegerRange(final long value) {
+        return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+    }
+
     private SafeFraction asSafeFraction() {
         return new SafeFraction(fraction);
     }
@@ -337,6 +413,9 @@ public class Value implements Serializable, Comparable<Value> {
      * @return this value as an integer
      */
     public int asInteger() {
+        if (isInteger()) {
+            return fraction.getNumerator();
+        }
         return (int) round(fraction.doubleValue(), 0);
     }
 
@@ -355,6 +434,9 @@ public class Value implements Serializable, Comparable<Value> {
      * @return this value as a double
      */
     public double asRounded() {
+        if (isInteger()) {
+            return fraction.getNumerator();
+        }
         return round(fraction.doubleValue(), 2);
     }
 
@@ -381,6 +463,16 @@ public class Value implements Serializable, Comparable<Value> {
         return serialize();
     }
 
+    /**
+     * Replaces a deserialized value with the shared instance of the {@link ValuePool#getDefault() pool of values}.
+     *
+     * @return the shared instance, or this value if the pool is disabled
+     */
+    @Serial
+    protected Object readResolve() {
+        return intern(this);
+    }
+
     @Override
     @Generated
     public boolean equals(final Object o) {
@@ -0,0 +1,132 @@
+package edu.hm.hafner.coverage;
+
+import java.util.Optional;
+
+import edu.hm.hafner.coverage.Coverage.CoverageBuilder;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+
+/**
+ * Sums up a sequence of values without creating intermediate {@link Value} instances. The result is identical to
+ * reducing the values with {@link Value#add(Value)}, but only the final value is created:
+ * <ul>
+ *     <li>{@link Coverage} values are summed up in primitive covered and missed counters.</li>
+ *     <li>Integer values (i.e., values with a denominator of 1) are summed up in a primitive counter.</li>
+ * </ul>
+ *
+ * <p>
+ * All other values (fractions, differences, values of different metrics or types) fall back to
+ * {@link Value#add(Value)} starting with the sum of the previous values. This also applies if a primitive counter would
+ * overflow. So these values get the same results and errors as before.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+final class ValueAccumulator {
+    @CheckForNull
+    private Value first;
+    private int count;
+
+    private boolean isCoverage;
+    private int covered;
+    private int missed;
+
+    private boolean isInteger;
+    private long sum;
+
+    /** The sum of the values if the values cannot be summed up in the primitive counters. */
+    @CheckForNull
+    private Value fallback;
+
+    /**
+     * Adds the specified value to the sum.
+     *
+     * @param value
+     *         the value to add
+     */
+    void add(final Value value) {
+        var firstValue = first;
+        var fallbackValue = fallback;
+        if (firstValue == null) {
+            first = value;
+            initialize(value);
+        }
+        else if (fallbackValue != null) {
+            fallback = fallbackValue.add(value);
+        }
+        else if (!accumulate(firstValue, value)) {
+            fallback = build(firstValue).add(value);
+        }
+        count++;
+    }
+
+    private void initialize(final Value value) {
+        if (value instanceof Coverage coverage) {
+            isCoverage = true;
+            covered = coverage.getCovered();
+            missed = coverage.getMissed();
+        }
+        else if (isIntegerValue(value)) {
+            isInteger = true;
+            sum = value.getFraction().getNumerator();
+        }
+    }
+
+    private boolean isIntegerValue(final Value value) {
+        return value.getClass() == Value.class && value.getFraction().getDenominator() == 1;
+    }
+
+    private boolean accumulate(final Value firstValue, final Value value) {
+        if (!firstValue.getMetric().equals(value.getMetric())) {
+            return false;
+        }
+        if (isCoverage && value instanceof Coverage coverage) {
+            long coveredSum = (long) covered + coverage.getCovered();
+            long missedSum = (long) missed + coverage.getMissed();
+            if (isIntegerRange(coveredSum) && isIntegerRange(missedSum)) {
+                covered = (int) coveredSum;
+                missed = (int) missedSum;
+                return true;
+            }
+        }
+        else if (isInteger && isIntegerValue(value)) {
+            long integerSum = sum + value.getFraction().getNumerator();
+            if (isIntegerRange(integerSum)) {
+                sum = integerSum;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isIntegerRange(final long value) {
+        return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * Returns the sum of all added values.
+     *
+     * @return the sum, or an empty optional if no values have been added
+     */
+    Optional<Value> getSum() {
+        var firstValue = first;
+        if (firstValue == null) {
+            return Optional.empty();
+        }
+        var fallbackValue = fallback;
+        if (fallbackValue != null) {
+            return Optional.of(fallbackValue);
+        }
+        return Optional.of(build(firstValue));
+    }
+
+    private Value build(final Value firstValue) {
+        if (count == 1) {
+            return firstValue;
+        }
+        var metric = firstValue.getMetric();
+        if (isCoverage) {
+            return new CoverageBuilder().withMetric(metric).withCovered(covered).withMissed(missed).build();
+        }
+        return new Value(metric, (int) sum);
+    }
+}
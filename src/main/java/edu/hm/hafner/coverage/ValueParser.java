@@ -0,0 +1,228 @@
+package edu.hm.hafner.coverage;
+
+import org.apache.commons.lang3.math.Fraction;
+
+import edu.hm.hafner.coverage.Coverage.CoverageBuilder;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+
+/**
+ * Parses the serialization of {@link Value} instances in a single pass over the characters. The parser reads the
+ * metric name and the numbers directly from the characters, so no intermediate strings need to be created for the
+ * removal of whitespace, the separation of metric and value, or the normalization of the metric name.
+ *
+ * <p>
+ * The parser supports the formats that are created by {@link Value#serialize()}: "METRIC: 10/100" for coverages,
+ * "METRIC: 10" and "METRIC: 1:3" for values, and "METRIC: Δ10" or "METRIC: Δ1:3" for differences. For all other input
+ * (e.g., non-ASCII characters, numbers with more than 9 digits, or invalid values) the parser returns {@code null}, so
+ * that the caller can fall back to the general parsing methods that also create the error messages.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+final class ValueParser {
+    private static final char DELTA = Difference.DELTA.charAt(0);
+    private static final char METRIC_SEPARATOR = ':';
+    private static final char COVERAGE_SEPARATOR = '/';
+    private static final char FRACTION_SEPARATOR = ':';
+    private static final int MAXIMUM_DIGITS = 9;
+    private static final long INVALID = Long.MIN_VALUE;
+    private static final int END = -1;
+
+    /**
+     * Parses the specified serialization of a value.
+     *
+     * @param text
+     *         the serialization of the value, see {@link Value#valueOf(String)}
+     *
+     * @return the value, or {@code null} if the text cannot be parsed by this parser
+     */
+    @CheckForNull
+    static Value parse(@CheckForNull final CharSequence text) {
+        if (text == null) {
+            return null;
+        }
+        var parser = new ValueParser(text);
+        var metric = parser.readMetric();
+        if (metric == null) {
+            return null;
+        }
+        return parser.readValue(metric);
+    }
+
+    /**
+     * Parses the specified serialization of a coverage.
+     *
+     * @param metric
+     *         the metric of the coverage
+     * @param text
+     *         the serialization of the coverage, see {@link Coverage#valueOf(Metric, String)}
+     *
+     * @return the coverage, or {@code null} if the text cannot be parsed by this parser
+     */
+    @CheckForNull
+    static Coverage parseCoverage(final Metric metric, @CheckForNull final CharSequence text) {
+        if (text == null) {
+            return null;
+        }
+        var parser = new ValueParser(text);
+        long covered = parser.readNumber(false);
+        if (covered != INVALID && parser.readSeparator() == COVERAGE_SEPARATOR) {
+            return parser.readCoverage(metric, covered);
+        }
+        return null;
+    }
+
+    private final CharSequence text;
+    private final int length;
+    private int position;
+
+    private ValueParser(final CharSequence text) {
+        this.text = text;
+        length = text.length();
+    }
+
+    @CheckForNull
+    private Metric readMetric() {
+        var name = new StringBuilder(length);
+        while (position < length) {
+            char c = text.charAt(position++);
+            if (c == METRIC_SEPARATOR) {
+                return Metric.fromNormalizedName(name.toString());
+            }
+            if (!isAscii(c)) {
+                return null;
+            }
+            if (!Character.isWhitespace(c) && c != '-' && c != '_') {
+                name.append(c >= 'a' && c <= 'z' ? (char) (c - 'a' + 'A') : c);
+            }
+        }
+        return null;
+    }
+
+    @CheckForNull
+    private Value readValue(final Metric metric) {
+        boolean isDifference = readDelta();
+        long numerator = readNumber(true);
+        if (numerator == INVALID) {
+            return null;
+        }
+        int separator = readSeparator();
+        if (separator == END) {
+            return createValue(metric, isDifference, numerator, 1);
+        }
+        if (separator == COVERAGE_SEPARATOR && !isDifference && numerator >= 0) {
+            return readCoverage(metric, numerator);
+        }
+        if (separator == FRACTION_SEPARATOR) {
+            return readFraction(metric, isDifference, numerator);
+        }
+        return null;
+    }
+
+    private boolean readDelta() {
+        skipWhitespace();
+        if (position < length && text.charAt(position) == DELTA) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    @CheckForNull
+    private Value readFraction(final Metric metric, final boolean isDifference, final long numerator) {
+        long denominator = readNumber(false);
+        if (denominator > 0 && isAtEnd()) {
+            return createValue(metric, isDifference, numerator, denominator);
+        }
+        return null;
+    }
+
+    private Value createValue(final Metric metric, final boolean isDifference,
+            final long numerator, final long denominator) {
+        var fraction = Fraction.getFraction((int) numerator, (int) denominator);
+        if (isDifference) {
+            return ValuePool.getDefault().intern(new Difference(metric, fraction));
+        }
+        return ValuePool.getDefault().intern(new Value(metric, fraction));
+    }
+
+    @CheckForNull
+    private Coverage readCoverage(final Metric metric, final long covered) {
+        long total = readNumber(false);
+        if (total != INVALID && total >= covered && isAtEnd()) {
+            return new CoverageBuilder().withMetric(metric)
+                    .withCovered((int) covered)
+                    .withMissed((int) (total - covered))
+                    .build();
+        }
+        return null;
+    }
+
+    /**
+     * Reads the next character after skipping whitespace.
+     *
+     * @return the next character, or {@link #END} if the end of the text has been reached
+     */
+    private int readSeparator() {
+        if (isAtEnd()) {
+            return END;
+        }
+        return text.charAt(position++);
+    }
+
+    /**
+     * Reads a decimal number with at most {@link #MAXIMUM_DIGITS} digits. Whitespace is skipped.
+     *
+     * @param isSigned
+     *         determines whether the number may start with a minus sign
+     *
+     * @return the number, or {@link #INVALID} if there is no valid number at the current position
+     */
+    private long readNumber(final boolean isSigned) {
+        skipWhitespace();
+        boolean isNegative = isSigned && position < length && text.charAt(position) == '-';
+        if (isNegative) {
+            position++;
+        }
+
+        long number = 0;
+        int digits = 0;
+        while (true) {
+            skipWhitespace();
+            if (position == length) {
+                break;
+            }
+            char c = text.charAt(position);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            number = number * 10 + c - '0';
+            digits++;
+            position++;
+        }
+        if (digits == 0 || digits > MAXIMUM_DIGITS) {
+            return INVALID;
+        }
+        return isNegative ? -number : number;
+    }
+
+    private boolean isAtEnd() {
+        skipWhitespace();
+
+        return position == length;
+    }
+
+    private void skipWhitespace() {
+        while (position < length && isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    private static boolean isWhitespace(final char c) {
+        return isAscii(c) && Character.isWhitespace(c);
+    }
+
+    private static boolean isAscii(final char c) {
+        return c < 128;
+    }
+}
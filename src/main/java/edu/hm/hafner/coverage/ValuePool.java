@@ -0,0 +1,237 @@
+package edu.hm.hafner.coverage;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.errorprone.annotations.CanIgnoreReturnValue;
+
+import edu.hm.hafner.util.Ensure;
+
+/**
+ * A bounded pool of shared {@link Value} instances. Values are immutable, so equal values can be shared by all nodes of
+ * all coverage trees that are held in memory, e.g., the values of methods that do not change between two builds. The
+ * pool is used by {@link Coverage.CoverageBuilder#build()}, by the static factory methods of {@link Value}, and when
+ * values are deserialized.
+ *
+ * <p>
+ * The pool is disabled by default, i.e., every value is returned as is. It can be enabled by setting a maximum size
+ * with {@link #setMaximumSize(int)}. The pool is thread safe without locks: the values are stored in two generations of
+ * concurrent maps. New values are stored in the young generation. If the young generation is full, it replaces the old
+ * generation, whose values are evicted. Both generations are replaced atomically as a single immutable pair. Values
+ * that are found in the old generation are promoted to the young generation again. So frequently used values stay in
+ * the pool while the number of values in the pool is bounded by the maximum size.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+public final class ValuePool {
+    private static final AtomicReference<ValuePool> DEFAULT = new AtomicReference<>(new ValuePool(0));
+
+    /**
+     * Returns the pool that is used by the coverage model.
+     *
+     * @return the default pool
+     */
+    public static ValuePool getDefault() {
+        return Objects.requireNonNull(DEFAULT.get());
+    }
+
+    /**
+     * Replaces the pool that is used by the coverage model. This method is intended for tests that need an isolated
+     * pool: they should restore the previous pool afterward.
+     *
+     * @param pool
+     *         the new default pool
+     *
+     * @return the previous default pool
+     */
+    @CanIgnoreReturnValue
+    static ValuePool replaceDefault(final ValuePool pool) {
+        return DEFAULT.getAndSet(pool);
+    }
+
+    /** The maximum size and the generations of the pool, replaced as a whole on eviction or configuration changes. */
+    private final AtomicReference<Generations> generations = new AtomicReference<>(new Generations(0));
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates a new pool with the specified maximum size.
+     *
+     * @param maximumSize
+     *         the maximum number of values in the pool, use 0 to disable the pool
+     */
+    ValuePool(final int maximumSize) {
+        setMaximumSize(maximumSize);
+    }
+
+    /**
+     * Sets the maximum number of values in the pool. All values of the pool are removed.
+     *
+     * @param maximumSize
+     *         the maximum number of values in the pool, use 0 to disable the pool
+     */
+    public void setMaximumSize(final int maximumSize) {
+        Ensure.that(maximumSize >= 0).isTrue("The maximum size of the pool must not be negative: %s", maximumSize);
+
+        generations.set(new Generations(maximumSize));
+        resetStatistics();
+    }
+
+    /**
+     * Returns the maximum number of values in the pool.
+     *
+     * @return the maximum number of values, or 0 if the pool is disabled
+     */
+    public int getMaximumSize() {
+        return getGenerations().maximumSize();
+    }
+
+    /**
+     * Returns whether the pool is enabled.
+     *
+     * @return {@code true} if values are shared, {@code false} if every value is returned as is
+     */
+    public boolean isEnabled() {
+        return getMaximumSize() > 0;
+    }
+
+    /**
+     * Removes all values from the pool and resets the statistics.
+     */
+    public void clear() {
+        generations.updateAndGet(current -> new Generations(current.maximumSize()));
+        resetStatistics();
+    }
+
+    private Generations getGenerations() {
+        return Objects.requireNonNull(generations.get());
+    }
+
+    private void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    /**
+     * Returns a shared instance that is equal to the specified value. If the pool does not contain such an instance
+     * yet, then the specified value will be added to the pool and returned.
+     *
+     * @param value
+     *         the value to share
+     * @param <T>
+     *         the type of the value
+     *
+     * @return the shared value, or the specified value if the pool is disabled
+     */
+    @CanIgnoreReturnValue
+    @SuppressWarnings("unchecked") // equal values have the same type
+    public <T extends Value> T intern(final T value) {
+        var current = getGenerations();
+        if (current.maximumSize() == 0) {
+            return value;
+        }
+
+        var shared = current.young().get(value);
+        if (shared == null) {
+            shared = current.old().remove(value);
+            if (shared == null) {
+                misses.increment();
+
+                return (T) store(current, value);
+            }
+            shared = store(current, shared);
+        }
+        hits.increment();
+
+        return (T) shared;
+    }
+
+    private Value store(final Generations current, final Value value) {
+        var existing = current.young().putIfAbsent(value, value);
+        if (existing != null) {
+            return existing;
+        }
+        if (current.isYoungGenerationFull() && generations.compareAndSet(current, current.evict())) {
+            evictions.add(current.old().size());
+        }
+        return value;
+    }
+
+    /**
+     * Returns the number of values in the pool.
+     *
+     * @return the number of values
+     */
+    public int size() {
+        var current = getGenerations();
+        return current.young().size() + current.old().size();
+    }
+
+    /**
+     * Returns statistics about the usage of the pool since it has been enabled or cleared.
+     *
+     * @return the statistics
+     */
+    public Statistics getStatistics() {
+        return new Statistics(hits.sum(), misses.sum(), evictions.sum(), size());
+    }
+
+    /**
+     * Statistics about the usage of a {@link ValuePool}.
+     *
+     * @param hits
+     *         the number of values that have been found in the pool
+     * @param misses
+     *         the number of values that have been added to the pool
+     * @param evictions
+     *         the number of values that have been removed from the pool
+     * @param size
+     *         the number of values in the pool
+     */
+    public record Statistics(long hits, long misses, long evictions, int size) {
+        /**
+         * Returns the ratio of values that have been found in the pool.
+         *
+         * @return the hit rate in the interval [0, 1]
+         */
+        public double hitRate() {
+            long requests = hits + misses;
+            if (requests == 0) {
+                return 0;
+            }
+            return (double) hits / requests;
+        }
+    }
+
+    /**
+     * The two generations of a pool. New values are stored in the young generation. If the young generation is full,
+     * it replaces the old generation in a new instance of this record.
+     *
+     * @param maximumSize
+     *         the maximum number of values in both generations
+     * @param young
+     *         the young generation
+     * @param old
+     *         the old generation, its values are evicted on the next replacement
+     */
+    private record Generations(int maximumSize, Map<Value, Value> young, Map<Value, Value> old) {
+        Generations(final int maximumSize) {
+            this(maximumSize, new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+
+        boolean isYoungGenerationFull() {
+            return young.size() >= Math.max(maximumSize / 2, 1);
+        }
+
+        Generations evict() {
+            return new Generations(maximumSize, new ConcurrentHashMap<>(), young);
+        }
+    }
+}
@@ -17,6 +17,7 @@ import edu.hm.hafner.coverage.Coverage;
 import edu.hm.hafner.coverage.Coverage.CoverageBuilder;
 import edu.hm.hafner.coverage.CoverageParser;
 import edu.hm.hafner.coverage.FileNode;
+import edu.hm.hafner.coverage.LineCounterBatch;
 import edu.hm.hafner.coverage.MethodNode;
 import edu.hm.hafner.coverage.Metric;
 import edu.hm.hafner.coverage.ModuleNode;
@@ -123,6 +124,7 @@ public class CoberturaParser extends CoverageParser {
     private void readPackage(final XMLEventReader reader, final ModuleNode root,
             final String packageName, final String fileName, final FilteredLog log) throws XMLStreamException {
         var packageNode = root.findOrCreatePackageNode(packageName);
+        var counters = new LineCounterBatch();
 
         while (reader.hasNext()) {
             var event = reader.nextEvent();
@@ -132,7 +134,8 @@ public class CoberturaParser extends CoverageParser {
                 if (CLASS.equals(element.getName())) {
                     var fileNode = createFileNode(element, packageNode);
 
-                    readClassOrMethod(reader, fileNode, fileNode, element, fileName, log);
+                    readClassOrMethod(reader, counters, fileNode, element, fileName, log);
+                    fileNode.addCounters(counters);
                 }
             }
             else if (event.isEndElement()) {
@@ -157,16 +160,46 @@ public class CoberturaParser extends CoverageParser {
         return path.toString();
     }
 
-    @SuppressWarnings({"PMD.CyclomaticComplexity", "PMD.CognitiveComplexity"})
+    /**
+     * Reads a class or method element and adds the line counters of a class element to the specified file.
+     *
+     * @param reader
+     *         the reader of the XML events
+     * @param fileNode
+     *         the file that receives the line counters
+     * @param parentNode
+     *         the parent of the class or method node
+     * @param element
+     *         the class or method element
+     * @param fileName
+     *         the name of the report
+     * @param log
+     *         the logger
+     *
+     * @throws XMLStreamException
+     *         if the XML events cannot be read
+     * @deprecated use {@link #readClassOrMethod(XMLEventReader, LineCounterBatch, Node, StartElement, String,
+     *         FilteredLog)} that collects the line counters of a file in a batch
+     */
+    @Deprecated
     protected void readClassOrMethod(final XMLEventReader reader, final FileNode fileNode,
             final Node parentNode, final StartElement element, final String fileName, final FilteredLog log)
             throws XMLStreamException {
+        var counters = new LineCounterBatch();
+        readClassOrMethod(reader, counters, parentNode, element, fileName, log);
+        fileNode.addCounters(counters);
+    }
+
+    @SuppressWarnings({"PMD.CyclomaticComplexity", "PMD.CognitiveComplexity"})
+    protected void readClassOrMethod(final XMLEventReader reader, final LineCounterBatch counters,
+            final Node parentNode, final StartElement element, final String fileName, final FilteredLog log)
+            throws XMLStreamException {
         var lineCoverage = Coverage.nullObject(Metric.LINE);
         var branchCoverage = Coverage.nullObject(Metric.BRANCH);
 
         var node = createNode(parentNode, element, log);
         getOptionalValueOf(element, COMPLEXITY)
-                .ifPresent(c -> node.addValue(new Value(Metric.CYCLOMATIC_COMPLEXITY, readComplexity(c))));
+                .ifPresent(c -> node.addValue(Value.valueOf(Metric.CYCLOMATIC_COMPLEXITY, readComplexity(c))));
 
         while (reader.hasNext()) {
             var event = reader.nextEvent();
@@ -191,11 +224,11 @@ public class CoberturaParser extends CoverageParser {
 
                     if (CLASS.equals(element.getName())) { // Use the line counters at the class level for a file
                         int lineNumber = getIntegerValueOf(nextElement, NUMBER);
-                        fileNode.addCounters(lineNumber, coverage.getCovered(), coverage.getMissed());
+                        counters.addCounters(lineNumber, coverage.getCovered(), coverage.getMissed());
                     }
                 }
                 else if (METHOD.equals(nextElement.getName())) {
-                    readClassOrMethod(reader, fileNode, node, nextElement, fileName, log); // recursive call
+                    readClassOrMethod(reader, counters, node, nextElement, fileName, log); // recursive call
                 }
             }
             else if (event.isEndElement()) {
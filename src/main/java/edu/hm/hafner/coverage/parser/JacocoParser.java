@@ -17,7 +17,7 @@ import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import edu.hm.hafner.coverage.ClassNode;
 import edu.hm.hafner.coverage.Coverage.CoverageBuilder;
 import edu.hm.hafner.coverage.CoverageParser;
-import edu.hm.hafner.coverage.FileNode;
+import edu.hm.hafner.coverage.LineCounterBatch;
 import edu.hm.hafner.coverage.MethodNode;
 import edu.hm.hafner.coverage.Metric;
 import edu.hm.hafner.coverage.ModuleNode;
@@ -225,6 +225,7 @@ public class JacocoParser extends CoverageParser {
             final String packageName, final StartElement startElement, final String fileName) throws XMLStreamException {
         var sourceFilefileName = getValueOf(startElement, NAME);
         var fileNode = packageNode.findOrCreateFileNode(sourceFilefileName, internPath(packageName, sourceFilefileName));
+        var counters = new LineCounterBatch();
 
         while (reader.hasNext()) {
             var event = reader.nextEvent();
@@ -232,7 +233,7 @@ public class JacocoParser extends CoverageParser {
             if (event.isStartElement()) {
                 var nextElement = event.asStartElement();
                 if (LINE.equals(nextElement.getName())) {
-                    readLine(fileNode, nextElement);
+                    readLine(counters, nextElement);
                 }
                 else if (COUNTER.equals(nextElement.getName())) {
                     readValueCounter(fileNode, nextElement);
@@ -241,14 +242,14 @@ public class JacocoParser extends CoverageParser {
             else if (event.isEndElement()) {
                 var endElement = event.asEndElement();
                 if (SOURCE_FILE.equals(endElement.getName())) {
-                    return fileNode;
+                    return fileNode.addCounters(counters);
                 }
             }
         }
         throw createEofException(fileName);
     }
 
-    private void readLine(final FileNode fileNode, final StartElement startElement) {
+    private void readLine(final LineCounterBatch counters, final StartElement startElement) {
         int lineNumber = getIntegerValueOf(startElement, LINE_NUMBER);
         int coveredInstructions = getIntegerValueOf(startElement, COVERED_INSTRUCTIONS);
         int coveredBranches = getIntegerValueOf(startElement, COVERED_BRANCHED);
@@ -264,7 +265,7 @@ public class JacocoParser extends CoverageParser {
             covered = coveredBranches;
             missed = missedBranches;
         }
-        fileNode.addCounters(lineNumber, covered, missed);
+        counters.addCounters(lineNumber, covered, missed);
     }
 
     @CanIgnoreReturnValue
@@ -318,7 +319,7 @@ public class JacocoParser extends CoverageParser {
 
     private Value createValue(final String currentType, final int covered, final int missed) {
         if (VALUE_COMPLEXITY.equals(currentType)) {
-            return new Value(Metric.CYCLOMATIC_COMPLEXITY, covered + missed);
+            return Value.valueOf(Metric.CYCLOMATIC_COMPLEXITY, covered + missed);
         }
         else {
             var builder = new CoverageBuilder();
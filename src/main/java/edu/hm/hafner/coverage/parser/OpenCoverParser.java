@@ -21,6 +21,7 @@ import edu.hm.hafner.coverage.ClassNode;
 import edu.hm.hafner.coverage.Coverage.CoverageBuilder;
 import edu.hm.hafner.coverage.CoverageParser;
 import edu.hm.hafner.coverage.FileNode;
+import edu.hm.hafner.coverage.LineCounterBatch;
 import edu.hm.hafner.coverage.Metric;
 import edu.hm.hafner.coverage.ModuleNode;
 import edu.hm.hafner.coverage.PackageNode;
@@ -156,26 +157,29 @@ public class OpenCoverParser extends CoverageParser {
 
     private void createNodes(final Map<String, String> files, final PackageNode packageNode,
             final List<CoverageClassHolder> classes) {
+        var counters = new LineCounterBatch();
         for (var file : files.entrySet()) {
             var fileNode = packageNode.findOrCreateFileNode(getFileName(file.getValue()), getTreeStringBuilder().intern(file.getValue()));
             for (CoverageClassHolder clazz : classes) {
                 if (clazz.hasMethods() && clazz.getFileId() != null && clazz.getFileId().equals(file.getKey())) {
-                    createClassWithMethods(clazz, fileNode);
+                    createClassWithMethods(clazz, fileNode, counters);
                 }
             }
+            fileNode.addCounters(counters);
         }
     }
 
-    private void createClassWithMethods(final CoverageClassHolder clazz, final FileNode fileNode) {
+    private void createClassWithMethods(final CoverageClassHolder clazz, final FileNode fileNode,
+            final LineCounterBatch counters) {
         var classNode = fileNode.createClassNode(clazz.getClassName());
         for (var method : clazz.getMethods()) {
             if (classNode.findMethod(method.getMethodName(), method.getMethodName()).isEmpty()) {
-                createPoints(fileNode, classNode, method);
+                createPoints(counters, classNode, method);
             }
         }
     }
 
-    private void createPoints(final FileNode fileNode, final ClassNode classNode, final CoverageMethod method) {
+    private void createPoints(final LineCounterBatch counters, final ClassNode classNode, final CoverageMethod method) {
         var methodNode = classNode.createMethodNode(method.getMethodName(), method.getMethodName());
         var builder = new CoverageBuilder();
         var branchCoverage = builder.withMetric(Metric.BRANCH)
@@ -190,7 +194,7 @@ public class OpenCoverParser extends CoverageParser {
         methodNode.addValue(lineCoverage);
         methodNode.addValue(branchCoverage);
         methodNode.addValue(instructionCoverage);
-        methodNode.addValue(new Value(Metric.CYCLOMATIC_COMPLEXITY, method.getComplexity()));
+        methodNode.addValue(Value.valueOf(Metric.CYCLOMATIC_COMPLEXITY, method.getComplexity()));
         Map<Integer, Pair<Integer, Integer>> points = new LinkedHashMap<>();
 
         // Line coverage only
@@ -207,7 +211,7 @@ public class OpenCoverParser extends CoverageParser {
 
         // Create all counters for each point
         for (var point : points.entrySet()) {
-            addCounters(fileNode, point.getKey(), point.getValue().getLeft(), point.getValue().getRight());
+            addCounters(counters, point.getKey(), point.getValue().getLeft(), point.getValue().getRight());
         }
     }
 
@@ -323,7 +327,7 @@ public class OpenCoverParser extends CoverageParser {
         }
     }
 
-    private void addCounters(final FileNode fileNode, final int lineNumber, final int coveredInstructions, final int coveredBranches) {
+    private void addCounters(final LineCounterBatch counters, final int lineNumber, final int coveredInstructions, final int coveredBranches) {
         int missed;
         int covered;
         if (coveredBranches == 0) { // only instruction coverage found
@@ -334,7 +338,7 @@ public class OpenCoverParser extends CoverageParser {
             covered = coveredBranches;
             missed = coveredBranches - coveredInstructions;
         }
-        fileNode.addCounters(lineNumber, covered, missed);
+        counters.addCounters(lineNumber, covered, missed);
     }
 
     @SuppressFBWarnings("NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE")
@@ -2,9 +2,6 @@ package edu.hm.hafner.coverage.parser;
 
 import java.io.Reader;
 import java.io.Serial;
-import java.util.Set;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
 import javax.xml.namespace.QName;
 import javax.xml.stream.XMLEventReader;
 import javax.xml.stream.XMLStreamException;
@@ -89,27 +86,26 @@ public class PitestParser extends CoverageParser {
     }
 
     private void collectLineCoverage(final FileNode fileNode) {
-        var builder = new CoverageBuilder(Metric.LINE);
-        var coveredLine = builder.withCovered(1).withMissed(0).build();
-        var uncoveredLine = builder.withCovered(0).withMissed(1).build();
-
-        var lineMapping = collectLines(fileNode, Mutation::isCovered).stream()
-                .collect(Collectors.toMap(k -> k, v -> coveredLine));
-        var covered = lineMapping.size();
-
-        collectLines(fileNode, Mutation::isMissed).forEach(line -> lineMapping.put(line, uncoveredLine));
-        var missed = lineMapping.size() - covered;
-
-        lineMapping.forEach((line, coverage) -> fileNode.addCounters(line, coverage.getCovered(), coverage.getMissed()));
-        fileNode.addValue(builder.withCovered(covered).withMissed(missed).build());
-    }
-
-    private static Set<Integer> collectLines(final FileNode fileNode,
-            final Predicate<Mutation> filterPredicate) {
-        return fileNode.getMutations().stream()
-                .filter(filterPredicate)
-                .map(Mutation::getLine)
-                .collect(Collectors.toSet());
+        int covered = 0;
+        int missed = 0;
+        for (var lineMutations : fileNode.getMutationsPerLine().entrySet()) {
+            var mutations = lineMutations.getValue();
+            boolean hasCoveredMutations = mutations.stream().anyMatch(Mutation::isCovered);
+            boolean hasMissedMutations = mutations.stream().anyMatch(Mutation::isMissed);
+            if (hasMissedMutations) {
+                fileNode.addCounters(lineMutations.getKey(), 0, 1);
+            }
+            else if (hasCoveredMutations) {
+                fileNode.addCounters(lineMutations.getKey(), 1, 0);
+            }
+            if (hasCoveredMutations) {
+                covered++;
+            }
+            else if (hasMissedMutations) {
+                missed++;
+            }
+        }
+        fileNode.addValue(new CoverageBuilder(Metric.LINE).withCovered(covered).withMissed(missed).build());
     }
 
     private void readMutation(final XMLEventReader reader, final ModuleNode root, final StartElement mutationElement)
@@ -13,6 +13,7 @@ import javax.xml.stream.events.StartElement;
 import edu.hm.hafner.coverage.Coverage;
 import edu.hm.hafner.coverage.Coverage.CoverageBuilder;
 import edu.hm.hafner.coverage.FileNode;
+import edu.hm.hafner.coverage.LineCounterBatch;
 import edu.hm.hafner.coverage.Metric;
 import edu.hm.hafner.coverage.Node;
 import edu.hm.hafner.coverage.Value;
@@ -72,8 +73,36 @@ public class VectorCastParser extends CoberturaParser {
         return localFunctionCoverage;
     }
 
+    /**
+     * Processes the start of a child element of a class or method element and adds the line counters of a class
+     * element to the specified file.
+     *
+     * @param nextElement
+     *         the child element
+     * @param element
+     *         the class or method element
+     * @param fileNode
+     *         the file that receives the line counters
+     * @param coverageMap
+     *         the coverages of the class or method
+     *
+     * @return {@code true} if the child element is a class or method that needs to be read, {@code false} otherwise
+     * @throws XMLStreamException
+     *         if the XML events cannot be read
+     * @deprecated use {@link #processStartElement(StartElement, StartElement, LineCounterBatch, Map)} that collects
+     *         the line counters of a file in a batch
+     */
+    @Deprecated
     protected boolean processStartElement(final StartElement nextElement, final StartElement element,
             final FileNode fileNode, final Map<Metric, Coverage> coverageMap) throws XMLStreamException {
+        var counters = new LineCounterBatch();
+        var isClassOrMethod = processStartElement(nextElement, element, counters, coverageMap);
+        fileNode.addCounters(counters);
+        return isClassOrMethod;
+    }
+
+    protected boolean processStartElement(final StartElement nextElement, final StartElement element,
+            final LineCounterBatch counters, final Map<Metric, Coverage> coverageMap) throws XMLStreamException {
         boolean runReadClassOrMethod = false;
 
         if (LINE.equals(nextElement.getName())) {
@@ -121,9 +150,9 @@ public class VectorCastParser extends CoberturaParser {
             if (CLASS.equals(element.getName())) { // Use the line counters at the class level for a file
                 int lineNumber = getIntegerValueOf(nextElement, NUMBER);
 
-                fileNode.addCounters(lineNumber, lineBranchCoverage.getCovered(), lineBranchCoverage.getMissed());
-                fileNode.addMcdcPairCounters(lineNumber, mcdcPairLineCoverage.getCovered(), mcdcPairLineCoverage.getMissed());
-                fileNode.addFunctionCallCounters(lineNumber, functionCallLineCoverage.getCovered(), functionCallLineCoverage.getMissed());
+                counters.addCounters(lineNumber, lineBranchCoverage.getCovered(), lineBranchCoverage.getMissed());
+                counters.addMcdcPairCounters(lineNumber, mcdcPairLineCoverage.getCovered(), mcdcPairLineCoverage.getMissed());
+                counters.addFunctionCallCounters(lineNumber, functionCallLineCoverage.getCovered(), functionCallLineCoverage.getMissed());
             }
         }
         else if (classOrMethodElement(nextElement)) {
@@ -157,7 +186,7 @@ public class VectorCastParser extends CoberturaParser {
     @Override
     @SuppressWarnings({"PMD.CyclomaticComplexity", "PMD.CognitiveComplexity"})
     protected void readClassOrMethod(final XMLEventReader reader,
-            final FileNode fileNode, final Node parentNode,
+            final LineCounterBatch counters, final Node parentNode,
             final StartElement element, final String fileName, final FilteredLog log)
                 throws XMLStreamException {
         Map<Metric, Coverage> coverageMap = new EnumMap<>(Metric.class);
@@ -170,7 +199,7 @@ public class VectorCastParser extends CoberturaParser {
 
         var node = createNode(parentNode, element, log);
         getOptionalValueOf(element, COMPLEXITY)
-                .ifPresent(c -> node.addValue(new Value(Metric.CYCLOMATIC_COMPLEXITY, readComplexity(c))));
+                .ifPresent(c -> node.addValue(Value.valueOf(Metric.CYCLOMATIC_COMPLEXITY, readComplexity(c))));
         getOptionalValueOf(element, FUNCTION_COVERAGE).map(this::fromFunctionCoverage).ifPresent(node::addValue);
 
         while (reader.hasNext()) {
@@ -179,8 +208,8 @@ public class VectorCastParser extends CoberturaParser {
             if (event.isStartElement()) {
                 var nextElement = event.asStartElement();
 
-                if (processStartElement(nextElement, element, fileNode, coverageMap)) {
-                    readClassOrMethod(reader, fileNode, node, nextElement, fileName, log);
+                if (processStartElement(nextElement, element, counters, coverageMap)) {
+                    readClassOrMethod(reader, counters, node, nextElement, fileName, log);
                 }
             }
 
@@ -33,6 +33,46 @@ class ClassNodeTest extends AbstractNodeTest {
         assertThat(classNode).isNotAggregation();
     }
 
+    @Test
+    void shouldKeepIndexOfMethodsInSync() {
+        var classNode = new ClassNode("Class");
+        var first = classNode.createMethodNode("run", "()V");
+        var second = classNode.createMethodNode("run", "()I");
+
+        assertThat(classNode.findMethod("run", "()V")).containsSame(first);
+        assertThat(classNode.findMethod("run", "()I")).containsSame(second);
+        assertThat(classNode.findMethod("run", "()")).isNotPresent();
+
+        var added = classNode.createMethodNode("added", "()V");
+        assertThat(classNode.findMethod("added", "()V")).containsSame(added);
+
+        classNode.removeChild(first);
+        assertThat(classNode.findMethod("run", "()V")).isNotPresent();
+        assertThat(classNode.findMethod("run", "()I")).containsSame(second);
+
+        var nested = new MethodNode("nested", "()V");
+        second.addChild(nested);
+        assertThat(classNode.findMethod("nested", "()V")).containsSame(nested);
+
+        classNode.removeChildren();
+        assertThat(classNode.findMethod("run", "()I")).isNotPresent();
+    }
+
+    @Test
+    void shouldFindMethodsInFrozenClass() {
+        var classNode = new ClassNode("Class");
+        var main = classNode.createMethodNode("main", "String...");
+        var nested = new ClassNode("Nested");
+        classNode.addChild(nested);
+        var run = nested.createMethodNode("run", "()V");
+
+        classNode.freeze();
+
+        assertThat(classNode.findMethod("main", "String...")).containsSame(main);
+        assertThat(classNode.findMethod("run", "()V")).containsSame(run);
+        assertThat(classNode.findMethod("run", "()I")).isNotPresent();
+    }
+
     @Test
     void shouldCopyTests() {
         var original = new ClassNode("Copy Me");
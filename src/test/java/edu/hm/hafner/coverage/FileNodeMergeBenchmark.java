@@ -0,0 +1,124 @@
+package edu.hm.hafner.coverage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import edu.hm.hafner.coverage.FileNodeTest.MapBasedCounters;
+
+/**
+ * Compares the performance of the linear merge of the line counters in {@link FileNode} with the previous
+ * implementation that used a union of the lines and boxed map lookups for each line. The benchmark merges many shards
+ * of the same source file, as it happens when the reports of a parallel test run are aggregated. The shards are read
+ * from the {@code jacoco-merge-*.xml} reports.
+ *
+ * <p>
+ * Run the benchmark with {@code mvn test -Pbenchmark}.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileNodeMergeBenchmark {
+    /**
+     * Merges the shards with {@link FileNode#merge(Node)}.
+     *
+     * @param shards
+     *         the shards to merge
+     * @param blackhole
+     *         the sink for the merged file
+     */
+    @Benchmark
+    public void mergeWithCursors(final Shards shards, final Blackhole blackhole) {
+        var files = shards.getFiles();
+        Node merged = files.get(0);
+        for (int i = 1; i < files.size(); i++) {
+            merged = merged.merge(files.get(i));
+        }
+        blackhole.consume(merged);
+    }
+
+    /**
+     * Merges the shards with the previous map based algorithm.
+     *
+     * @param shards
+     *         the shards to merge
+     * @param blackhole
+     *         the sink for the merged counters
+     */
+    @Benchmark
+    public void mergeWithMaps(final Shards shards, final Blackhole blackhole) {
+        var counters = shards.getCounters();
+        var merged = counters.get(0);
+        for (int i = 1; i < counters.size(); i++) {
+            merged = merged.merge(counters.get(i));
+        }
+        blackhole.consume(merged);
+    }
+
+    @Test
+    void runBenchmarks() throws RunnerException {
+        var options = new OptionsBuilder()
+                .include(getClass().getName())
+                .build();
+        new Runner(options).run();
+    }
+
+    /**
+     * Provides the shards of the source file that will be merged.
+     */
+    @State(Scope.Benchmark)
+    public static class Shards {
+        @Param({"10", "300"})
+        private int count;
+
+        private final List<FileNode> files = new ArrayList<>();
+        private final List<MapBasedCounters> counters = new ArrayList<>();
+
+        /**
+         * Reads the shards from the reports.
+         */
+        @Setup(Level.Trial)
+        public void readShards() {
+            var reports = new ArrayList<FileNode>();
+            for (String report : FileNodeTest.MERGE_REPORTS) {
+                reports.add(FileNodeTest.copyCounters(FileNodeTest.readFile(report)));
+            }
+            for (int i = 0; i < count; i++) {
+                var file = reports.get(i % reports.size());
+                files.add(file);
+                counters.add(new MapBasedCounters(file));
+            }
+        }
+
+        List<FileNode> getFiles() {
+            return files;
+        }
+
+        List<MapBasedCounters> getCounters() {
+            return counters;
+        }
+    }
+}
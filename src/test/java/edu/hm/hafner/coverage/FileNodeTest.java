@@ -1,11 +1,24 @@
 package edu.hm.hafner.coverage;
 
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ReadOnlyBufferException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 import org.junit.jupiter.api.Test;
 
+import edu.hm.hafner.coverage.Coverage.CoverageBuilder;
 import edu.hm.hafner.coverage.Mutation.MutationBuilder;
+import edu.hm.hafner.coverage.parser.JacocoParser;
+import edu.hm.hafner.util.FilteredLog;
 import edu.hm.hafner.util.LineRange;
 import edu.hm.hafner.util.TreeString;
 
@@ -15,6 +28,8 @@ import nl.jqno.equalsverifier.api.EqualsVerifierApi;
 import static edu.hm.hafner.coverage.assertions.Assertions.*;
 
 class FileNodeTest extends AbstractNodeTest {
+    static final List<String> MERGE_REPORTS = List.of("jacoco-merge-a.xml", "jacoco-merge-b.xml", "jacoco-merge-c.xml");
+
     @Override
     Metric getMetric() {
         return Metric.FILE;
@@ -22,8 +37,16 @@ class FileNodeTest extends AbstractNodeTest {
 
     @Override
     void configureEqualsVerifier(final EqualsVerifierApi<? extends Node> verifier) {
+        var red = new LineCounters();
+        red.put(1, 1, 0);
+        var blue = new LineCounters();
+        blue.put(2, 0, 1);
+        var modified = new LineIntervals();
+        modified.add(1);
         verifier.withPrefabValues(TreeString.class, TreeString.valueOf("src"), TreeString.valueOf("test"))
-                .suppress(Warning.NONFINAL_FIELDS);
+                .withPrefabValues(LineCounters.class, red, blue)
+                .withPrefabValues(LineIntervals.class, new LineIntervals(), modified)
+                .suppress(Warning.NONFINAL_FIELDS, Warning.TRANSIENT_FIELDS);
     }
 
     @Override
@@ -111,7 +134,7 @@ class FileNodeTest extends AbstractNodeTest {
 
     @Test
     void shouldComputeDelta() {
-        var builder = new Coverage.CoverageBuilder();
+        var builder = new CoverageBuilder();
 
         var fileA = new FileNode("FileA.java", ".");
         var fileALineCoverage = builder.withMetric(Metric.LINE).withCovered(10).withMissed(10).build();
@@ -147,6 +170,205 @@ class FileNodeTest extends AbstractNodeTest {
         assertThat(fileA.hasCoverageForLine(20)).isFalse();
     }
 
+    @Test
+    void shouldStoreCountersOfLinesInAnyOrder() {
+        var file = new FileNode("File.java", ".");
+        file.addCounters(20, 1, 1);
+        file.addCounters(10, 2, 0);
+        file.addCounters(30, 0, 3);
+        file.addCounters(15, 1, 0);
+        file.addCounters(20, 2, 0);
+        file.addMcdcPairCounters(40, 1, 1);
+
+        assertThat(file).hasLinesWithCoverage(10, 15, 20, 30);
+        assertThat(file.getCoveredCounters()).containsExactly(2, 1, 2, 0);
+        assertThat(file.getMissedCounters()).containsExactly(0, 0, 0, 3);
+        assertThat(file.getMcdcPairCoveredCounters()).containsExactly(1);
+        assertThat(file.getCoveredOfLine(20)).isEqualTo(2);
+        assertThat(file.getMissedOfLine(30)).isEqualTo(3);
+        assertThat(file.getCoveredOfLine(25)).isZero();
+        assertThat(file.getCounters()).containsExactly(entry(10, 2), entry(15, 1), entry(20, 2), entry(30, 0));
+        assertThat(file.getMissedLines()).containsExactly(30);
+        assertThat(file.hasCoverageForLine(40)).isTrue();
+
+        var restored = (FileNode) restore(toByteArray(file));
+        assertThat(restored).isEqualTo(file);
+        assertThat(restored.getMcdcPairMissedCounters()).containsExactly(1);
+        assertThat(file.copy()).isEqualTo(file);
+    }
+
+    @Test
+    void shouldSerializeRunLengthEncodedCounters() {
+        var file = new FileNode("File.java", ".");
+        for (int line = 1; line <= 100; line++) {
+            file.addCounters(line, line > 90 ? 0 : 1, line > 90 ? 1 : 0);
+        }
+        file.addMcdcPairCounters(50, 1, 1);
+        file.compactLineCounters();
+
+        assertThat(file.getMissedLineRanges()).containsExactly(new LineRange(91, 100));
+
+        var restored = (FileNode) restore(toByteArray(file));
+        assertThat(restored).isEqualTo(file);
+        assertThat(restored.getMissedLineRanges()).containsExactly(new LineRange(91, 100));
+        assertThat(restored.getCoveredOfLine(90)).isEqualTo(1);
+        assertThat(restored.getMcdcPairCoveredCounters()).containsExactly(1);
+    }
+
+    @Test
+    void shouldSerializeOnlyRunsOfRunLengthEncodedCounters() {
+        var file = new FileNode("File.java", ".");
+        for (int line = 1; line <= 10_000; line++) {
+            file.addCounters(line, line % 1000 < 900 ? 1 : 0, line % 1000 < 900 ? 0 : 1);
+        }
+        int uncompressedSize = toByteArray(file).length;
+
+        file.compactLineCounters();
+        var serialized = toByteArray(file);
+
+        assertThat(serialized.length).isLessThan(2_000).isLessThan(uncompressedSize / 50);
+        var restored = (FileNode) restore(serialized);
+        assertThat(restored).isEqualTo(file);
+        assertThat(restored.getMissedLineRanges()).hasSize(10).contains(new LineRange(900, 999));
+    }
+
+    @Test
+    void shouldAddCountersOfBatch() {
+        var file = new FileNode("File.java", ".");
+        file.addCounters(3, 1, 0).addCounters(4, 1, 0);
+
+        var batch = new LineCounterBatch();
+        batch.addCounters(5, 0, 1).addCounters(3, 2, 2)
+                .addMcdcPairCounters(3, 1, 1)
+                .addFunctionCallCounters(5, 0, 2);
+        assertThat(batch.isEmpty()).isFalse();
+
+        file.addCounters(batch);
+
+        assertThat(batch.isEmpty()).isTrue();
+        assertThat(file.getLinesWithCoverage()).containsExactly(3, 4, 5);
+        assertThat(file.getCoveredCounters()).containsExactly(2, 1, 0);
+        assertThat(file.getMissedCounters()).containsExactly(2, 0, 1);
+        assertThat(file.getMcdcPairCoveredCounters()).containsExactly(1);
+        assertThat(file.getFunctionCallMissedCounters()).containsExactly(2);
+
+        var sequential = new FileNode("File.java", ".");
+        sequential.addCounters(3, 1, 0).addCounters(4, 1, 0).addCounters(5, 0, 1).addCounters(3, 2, 2)
+                .addMcdcPairCounters(3, 1, 1).addFunctionCallCounters(5, 0, 2);
+        assertThat(file).isEqualTo(sequential);
+    }
+
+    @Test
+    void shouldProvideReadOnlyViewsOfCounters() {
+        var file = new FileNode("File.java", ".");
+        file.addCounters(3, 1, 0).addCounters(1, 0, 2).addFunctionCallCounters(2, 1, 1);
+
+        var lines = file.getLineNumbers();
+        assertThat(lines.isReadOnly()).isTrue();
+        assertThat(lines.remaining()).isEqualTo(2);
+        assertThat(lines.get(0)).isEqualTo(1);
+        assertThat(lines.get(1)).isEqualTo(3);
+        assertThat(file.getCoveredCounterView().get(1)).isEqualTo(1);
+        assertThat(file.getMissedCounterView().get(0)).isEqualTo(2);
+        assertThat(file.getFunctionCallLineNumbers().get(0)).isEqualTo(2);
+        assertThat(file.getFunctionCallMissedCounterView().get(0)).isEqualTo(1);
+        assertThat(file.getMcdcPairLineNumbers().hasRemaining()).isFalse();
+
+        assertThatExceptionOfType(ReadOnlyBufferException.class).isThrownBy(() -> lines.put(0, 5));
+
+        file.addCounters(2, 5, 5);
+
+        assertThat(lines.remaining()).as("existing views are not changed").isEqualTo(2);
+        assertThat(file.getLineNumbers().remaining()).isEqualTo(3);
+        assertThat(file.getCoveredCounterView().get(1)).isEqualTo(5);
+    }
+
+    @Test
+    void shouldProvideViewsOfFrozenFile() {
+        var file = new FileNode("File.java", ".");
+        file.addCounters(3, 1, 0).addCounters(1, 0, 2).addMcdcPairCounters(3, 1, 1);
+        file.addMutation(new MutationBuilder().withLine(3).withStatus(MutationStatus.SURVIVED).build());
+
+        file.freeze();
+
+        assertThat(file.getLineNumbers().get(1)).isEqualTo(3);
+        assertThat(file.getMissedCounterView().get(0)).isEqualTo(2);
+        assertThat(file.getMcdcPairCoveredCounterView().get(0)).isEqualTo(1);
+        assertThat(file.getMissedLines()).containsExactly(1);
+        assertThat(file.getSurvivedMutationsPerLine()).containsOnlyKeys(3);
+    }
+
+    @Test
+    void shouldSummarizeCounters() {
+        var file = new FileNode("File.java", ".");
+        assertThat(file.getSummary().hasInstrumentedLines()).isFalse();
+
+        file.addCounters(2, 1, 0).addCounters(3, 2, 1).addCounters(5, 0, 1).addCounters(7, 0, 2)
+                .addMcdcPairCounters(3, 1, 1).addFunctionCallCounters(5, 2, 0);
+
+        assertThat(file.getSummary()).isEqualTo(new FileCoverageSummary(4, 2, 2, 1, 2, 3, 1, 1, 2, 0, 2, 7));
+        assertThat(file.getSummary()).isSameAs(file.getSummary());
+
+        file.addModifiedLines(10);
+        assertThat(file.hasCoveredAndModifiedLines()).isFalse();
+        file.addModifiedLineRange(6, 8);
+        assertThat(file.hasCoveredAndModifiedLines()).isTrue();
+
+        file.addCounters(9, 1, 0);
+
+        assertThat(file.getSummary().lastLine()).isEqualTo(9);
+        assertThat(file.getSummary().coveredLines()).isEqualTo(3);
+        assertThat(file.copy().getSummary()).isEqualTo(file.getSummary());
+    }
+
+    @Test
+    void shouldMergeCountersOfInterleavedLines() {
+        var left = new FileNode("File.java", ".");
+        left.addCounters(1, 1, 0).addCounters(3, 2, 2).addMcdcPairCounters(5, 2, 2).addFunctionCallCounters(7, 1, 1);
+        var right = new FileNode("File.java", ".");
+        right.addCounters(2, 0, 1).addCounters(3, 3, 1).addCounters(4, 1, 0)
+                .addMcdcPairCounters(5, 3, 1).addFunctionCallCounters(7, 0, 2);
+
+        var merged = (FileNode) left.merge(right);
+
+        assertThat(merged).hasLinesWithCoverage(1, 2, 3, 4);
+        assertThat(merged.getCoveredCounters()).containsExactly(1, 1, 3, 1);
+        assertThat(merged.getMissedCounters()).containsExactly(0, 0, 1, 0);
+        assertThat(merged.getMcdcPairCoveredCounters()).containsExactly(3);
+        assertThat(merged.getMcdcPairMissedCounters()).containsExactly(1);
+        assertThat(merged.getFunctionCallCoveredCounters()).containsExactly(1);
+        assertThat(merged.getFunctionCallMissedCounters()).containsExactly(1);
+        assertThat(merged.getValue(Metric.BRANCH)).contains(
+                new CoverageBuilder().withMetric(Metric.BRANCH).withCovered(3).withMissed(1).build());
+
+        var conflicting = new FileNode("File.java", ".");
+        conflicting.addCounters(3, 1, 2);
+        assertThatIllegalArgumentException().isThrownBy(() -> left.merge(conflicting))
+                .withMessageStartingWith("Cannot merge coverage information for line 3");
+    }
+
+    @Test
+    void shouldComputeSameResultAsMapBasedMerge() {
+        var reports = new ArrayList<FileNode>();
+        for (String report : MERGE_REPORTS) {
+            reports.add(copyCounters(readFile(report)));
+        }
+
+        Node merged = reports.get(0);
+        var expected = new MapBasedCounters(reports.get(0));
+        for (int i = 1; i < 7; i++) {
+            var file = reports.get(i % reports.size());
+            merged = merged.merge(file);
+            expected = expected.merge(new MapBasedCounters(file));
+        }
+
+        var actual = new MapBasedCounters((FileNode) merged);
+        assertThat(actual.coveredPerLine).isEqualTo(expected.coveredPerLine);
+        assertThat(actual.missedPerLine).isEqualTo(expected.missedPerLine);
+        assertThat(merged.getValue(Metric.LINE)).contains(expected.lineCoverage.build());
+        assertThat(merged.getValue(Metric.BRANCH)).contains(expected.branchCoverage.build());
+    }
+
     @Test
     void shouldAddModifiedLines() {
         var noModifiedLines = new FileNode("NoModified.java", ".");
@@ -160,6 +382,41 @@ class FileNodeTest extends AbstractNodeTest {
         assertThat(modifiedLines.hasModifiedLine(4)).isFalse();
     }
 
+    @Test
+    void shouldAddRangesOfModifiedLines() {
+        var file = new FileNode("File.java", ".");
+        file.addCounters(1, 1, 0).addCounters(5, 0, 1).addCounters(8, 2, 2).addCounters(20, 1, 0);
+
+        file.addModifiedLineRange(4, 6);
+        file.addModifiedLineRange(10, 15);
+        file.addModifiedLines(7, 16);
+
+        assertThat(file).hasOnlyModifiedLines(4, 5, 6, 7, 10, 11, 12, 13, 14, 15, 16);
+        assertThat(file.hasModifiedLine(8)).isFalse();
+        assertThat(file.hasModifiedLine(13)).isTrue();
+        assertThat(file.getCoveredAndModifiedLines()).containsExactly(5);
+
+        file.addModifiedLineRange(8, 9);
+        assertThat(file.getCoveredAndModifiedLines()).containsExactly(5, 8);
+
+        var filtered = (FileNode) file.filterTreeByModifiedLines().orElseThrow();
+        assertThat(filtered.getLinesWithCoverage()).containsExactly(5, 8);
+        assertThat(filtered.getValue(Metric.LINE)).contains(
+                new CoverageBuilder().withMetric(Metric.LINE).withCovered(1).withMissed(1).build());
+        assertThat(filtered.getValue(Metric.BRANCH)).contains(
+                new CoverageBuilder().withMetric(Metric.BRANCH).withCovered(2).withMissed(2).build());
+
+        var serialized = toByteArray(file);
+        assertThat(new String(serialized, StandardCharsets.ISO_8859_1))
+                .as("Older releases read the modified lines from a sorted set")
+                .contains(TreeSet.class.getName());
+        var restored = (FileNode) restore(serialized);
+        assertThat(restored).isEqualTo(file);
+        assertThat(restored.getModifiedLines()).hasSize(13);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> file.addModifiedLineRange(3, 2));
+    }
+
     @Test
     void shouldGetPartiallyCoveredLines() {
         var fileNode = new FileNode("NoModified.java", ".");
@@ -203,6 +460,38 @@ class FileNodeTest extends AbstractNodeTest {
         assertThat(fileNode).hasOnlyMutations(mutation);
     }
 
+    @Test
+    void shouldIndexMutationsPerLine() {
+        var builder = new MutationBuilder();
+        var fileNode = new FileNode("file.java", ".");
+        var killed = builder.withLine(2).withStatus(MutationStatus.KILLED).withIsDetected(true).build();
+        var survived = builder.withLine(2).withStatus(MutationStatus.SURVIVED).withIsDetected(false).build();
+        var uncovered = builder.withLine(5).withStatus(MutationStatus.NO_COVERAGE).withIsDetected(false).build();
+        fileNode.addMutation(killed);
+        fileNode.addMutation(uncovered);
+
+        assertThat(fileNode.getMutationsPerLine()).containsOnlyKeys(2, 5);
+        assertThat(fileNode.getSurvivedMutationsPerLine()).isEmpty();
+        assertThat(fileNode.getKilledMutationCountOfLine(2)).isOne();
+
+        fileNode.addMutation(survived);
+
+        assertThat(fileNode.getMutationsPerLine()).containsExactly(
+                entry(2, List.of(killed, survived)), entry(5, List.of(uncovered)));
+        assertThat(fileNode.getSurvivedMutationsPerLine()).containsExactly(entry(2, List.of(survived)));
+        assertThat(fileNode.getMutationsOfLine(2)).containsExactly(killed, survived);
+        assertThat(fileNode.getSurvivedMutationsOfLine(2)).containsExactly(survived);
+        assertThat(fileNode.getSurvivedMutationsOfLine(5)).isEmpty();
+        assertThat(fileNode.getMutationsOfLine(3)).isEmpty();
+        assertThat(fileNode.getKilledMutationCountOfLine(2)).isOne();
+        assertThat(fileNode.getSurvivedMutationCountOfLine(2)).isOne();
+        assertThat(fileNode.getKilledMutationCountOfLine(5)).isZero();
+        assertThat(fileNode.getSurvivedMutationCountOfLine(3)).isZero();
+
+        assertThatExceptionOfType(UnsupportedOperationException.class)
+                .isThrownBy(() -> fileNode.getMutationsPerLine().clear());
+    }
+
     @Test
     void shouldFilterTreeByModifiedLinesWithNoMutations() {
         var fileNode = new FileNode("file.java", ".");
@@ -345,4 +634,104 @@ class FileNodeTest extends AbstractNodeTest {
     public static void main(final String... args) throws IOException {
         new FileNodeTest().createSerializationFile();
     }
+
+    /**
+     * Creates a copy of the specified file that contains only the line counters. Otherwise, a merge would mostly
+     * merge the classes and methods of the file.
+     *
+     * @param file
+     *         the file to copy
+     *
+     * @return the copy
+     */
+    static FileNode copyCounters(final FileNode file) {
+        var copy = new FileNode(file.getName(), file.getRelativePath());
+        for (int line : file.getLinesWithCoverage()) {
+            copy.addCounters(line, file.getCoveredOfLine(line), file.getMissedOfLine(line));
+        }
+        return copy;
+    }
+
+    static FileNode readFile(final String fileName) {
+        try (var stream = FileNodeTest.class.getResourceAsStream("parser/jacoco/" + fileName);
+                var reader = new InputStreamReader(Objects.requireNonNull(stream), StandardCharsets.UTF_8)) {
+            return new JacocoParser().parse(reader, fileName, new FilteredLog("Errors")).getAllFileNodes().get(0);
+        }
+        catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * The line and branch counters of a file, merged with the previous algorithm: the union of all lines is created
+     * in a {@link TreeSet}, and the counters of each line are looked up in maps with boxed keys and values. Only line
+     * and branch coverage are merged since the shards contain no MC/DC pair or function call counters.
+     */
+    static final class MapBasedCounters {
+        private final NavigableMap<Integer, Integer> coveredPerLine = new TreeMap<>();
+        private final NavigableMap<Integer, Integer> missedPerLine = new TreeMap<>();
+        private final CoverageBuilder lineCoverage = new CoverageBuilder().withMetric(Metric.LINE)
+                .withCovered(0).withMissed(0);
+        private final CoverageBuilder branchCoverage = new CoverageBuilder().withMetric(Metric.BRANCH)
+                .withCovered(0).withMissed(0);
+
+        MapBasedCounters(final FileNode file) {
+            for (int line : file.getLinesWithCoverage()) {
+                coveredPerLine.put(line, file.getCoveredOfLine(line));
+                missedPerLine.put(line, file.getMissedOfLine(line));
+            }
+        }
+
+        private MapBasedCounters(final MapBasedCounters other) {
+            coveredPerLine.putAll(other.coveredPerLine);
+            missedPerLine.putAll(other.missedPerLine);
+        }
+
+        MapBasedCounters merge(final MapBasedCounters other) {
+            var merged = new MapBasedCounters(this);
+
+            var lines = new TreeSet<Integer>();
+            lines.addAll(coveredPerLine.keySet());
+            lines.addAll(other.coveredPerLine.keySet());
+
+            for (final int line : lines) {
+                merged.mergeLine(line, valuesOf(line), other.valuesOf(line));
+            }
+            return merged;
+        }
+
+        private CoverageMetricsValues valuesOf(final int line) {
+            return new CoverageMetricsValues(coveredPerLine.getOrDefault(line, 0), missedPerLine.getOrDefault(line, 0));
+        }
+
+        private void mergeLine(final int line, final CoverageMetricsValues left, final CoverageMetricsValues right) {
+            if (left.totalsNotEqual(right)) {
+                if (!left.noMissing() && !right.noMissing()) {
+                    throw new IllegalArgumentException(
+                            String.format(Locale.ENGLISH, "Cannot merge coverage information for line %d", line));
+                }
+                left.setCoveredFromMax(right);
+                left.clearMissed();
+                left.setTotalFromCovered();
+            }
+
+            if (left.hasAnyInfo()) {
+                var chosen = left.getCovered() > right.getCovered() ? left : right;
+                coveredPerLine.put(line, chosen.getCovered());
+                missedPerLine.put(line, chosen.getMissed());
+                branchCoverage.incrementCovered(chosen.getCovered());
+                branchCoverage.incrementMissed(chosen.getMissed());
+            }
+            else {
+                coveredPerLine.put(line, left.getMaxCovered(right));
+                missedPerLine.put(line, left.getMinMissed(right));
+            }
+            if (coveredPerLine.get(line) > 0) {
+                lineCoverage.incrementCovered();
+            }
+            else {
+                lineCoverage.incrementMissed();
+            }
+        }
+    }
 }
@@ -0,0 +1,261 @@
+package edu.hm.hafner.coverage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.hm.hafner.util.LineRange;
+
+import static edu.hm.hafner.coverage.assertions.Assertions.*;
+
+class LineCountersTest {
+    @Test
+    void shouldUseDenseRepresentationForContiguousLines() {
+        var counters = createCounters(10, 11, 12, 14, 15, 16);
+
+        assertThat(counters.isDense()).isTrue();
+        verifyCounters(counters, 10, 11, 12, 14, 15, 16);
+    }
+
+    @Test
+    void shouldUseSparseRepresentationForScatteredLines() {
+        var counters = createCounters(10, 100, 1000, 10_000, 100_000, 1_000_000, 1_000_001, 1_000_002, 1_000_003);
+
+        assertThat(counters.isDense()).isFalse();
+        verifyCounters(counters, 10, 100, 1000, 10_000, 100_000, 1_000_000, 1_000_001, 1_000_002, 1_000_003);
+    }
+
+    @Test
+    void shouldSwitchRepresentationWhenDensityChanges() {
+        var counters = createCounters(3, 1, 2, 5, 4);
+        assertThat(counters.isDense()).isTrue();
+
+        counters.put(5000, 5000, 0);
+        assertThat(counters.isDense()).isFalse();
+        verifyCounters(counters, 1, 2, 3, 4, 5, 5000);
+
+        for (int line = 4999; line > 5; line--) {
+            counters.put(line, 2, line % 2);
+        }
+        assertThat(counters.isDense()).isTrue();
+        assertThat(counters.getCovered(4000)).isEqualTo(2);
+        assertThat(counters.getMissed(4001)).isEqualTo(1);
+        assertThat(counters.size()).isEqualTo(5000);
+    }
+
+    @Test
+    void shouldChooseRepresentationWhenCompacting() {
+        var dense = createCounters(1, 3, 5, 7, 9);
+        dense.compact();
+        assertThat(dense.isDense()).isTrue();
+        verifyCounters(dense, 1, 3, 5, 7, 9);
+
+        var sparse = createCounters(1, 4, 7, 10, 13, 16, 19, 22, 25);
+        sparse.compact();
+        assertThat(sparse.isDense()).isFalse();
+        verifyCounters(sparse, 1, 4, 7, 10, 13, 16, 19, 22, 25);
+
+        assertThat(dense).isNotEqualTo(sparse);
+        assertThat(dense.copy()).isEqualTo(dense).hasSameHashCodeAs(dense);
+        assertThat(sparse.copy()).isEqualTo(sparse).hasSameHashCodeAs(sparse);
+    }
+
+    @Test
+    void shouldUseRunLengthEncodingForUniformRegions() {
+        var counters = new LineCounters();
+        for (int line = 10; line < 30; line++) {
+            counters.put(line, 1, 0);
+        }
+        for (int line = 30; line < 35; line++) {
+            counters.put(line, 0, 1);
+        }
+        counters.put(40, 0, 2);
+        counters.put(41, 2, 0);
+        counters.compact();
+
+        assertThat(counters.isRunLengthEncoded()).isTrue();
+        assertThat(counters.isDense()).isFalse();
+        assertThat(counters.size()).isEqualTo(27);
+        assertThat(counters.toRuns()).containsExactly(10, 20, 1, 0, 30, 5, 0, 1, 40, 1, 0, 2, 41, 1, 2, 0);
+        assertThat(counters.getCovered(29)).isEqualTo(1);
+        assertThat(counters.getMissed(34)).isEqualTo(1);
+        assertThat(counters.contains(35)).isFalse();
+        assertThat(counters.contains(9)).isFalse();
+        assertThat(counters.getMissedLineRanges()).containsExactly(new LineRange(30, 40));
+        assertThat(counters.getMissedLines()).hasSize(6).contains(30, 34, 40);
+
+        var cursor = counters.cursor();
+        assertThat(cursor.getMissed(33)).isEqualTo(1);
+        assertThat(cursor.moveTo(36)).isFalse();
+        assertThat(cursor.getLine()).isEqualTo(40);
+
+        var restored = LineCounters.fromRuns(counters.toRuns());
+        assertThat(restored.isRunLengthEncoded()).isTrue();
+        assertThat(restored).isEqualTo(counters);
+
+        counters.put(20, 0, 1);
+        assertThat(counters.isRunLengthEncoded()).isFalse();
+        assertThat(counters.getMissed(20)).isEqualTo(1);
+        assertThat(counters.getCovered(21)).isEqualTo(1);
+        assertThat(counters).isNotEqualTo(restored);
+    }
+
+    @Test
+    void shouldReplaceCountersOfExistingLines() {
+        var counters = createCounters(1, 2, 3);
+        counters.put(2, 5, 6);
+        counters.put(0, 7, 8);
+
+        assertThat(counters.getLines()).containsExactly(0, 1, 2, 3);
+        assertThat(counters.getCoveredCounters()).containsExactly(7, 1, 5, 3);
+        assertThat(counters.getMissedCounters()).containsExactly(8, 1, 6, 1);
+        assertThat(counters.toCoveredMap()).containsExactly(entry(0, 7), entry(1, 1), entry(2, 5), entry(3, 3));
+    }
+
+    @Test
+    void shouldPutAllCountersInOneSortedPass() {
+        var counters = new LineCounters();
+        counters.putAll(new int[] {1, 2, 3, 4, 99}, new int[] {1, 2, 3, 4, 99}, new int[] {1, 0, 1, 0, 1}, 4);
+
+        assertThat(counters.isDense()).isTrue();
+        verifyCounters(counters, 1, 2, 3, 4);
+
+        counters.putAll(new int[] {9, 3, 7, 3, 5000}, new int[] {9, 0, 7, 3, 5000}, new int[] {1, 0, 1, 1, 0}, 5);
+
+        assertThat(counters.isDense()).isFalse();
+        verifyCounters(counters, 1, 2, 3, 4, 7, 9, 5000);
+
+        var sequential = new LineCounters();
+        for (int line : new int[] {1, 2, 3, 4, 7, 9, 5000}) {
+            sequential.put(line, line, line % 2);
+        }
+        assertThat(counters).isEqualTo(sequential).hasSameHashCodeAs(sequential);
+    }
+
+    @Test
+    void shouldQueryLinesWithBitmaps() {
+        var counters = new LineCounters();
+        counters.put(1, 0, 2);
+        counters.put(2, 1, 1);
+        counters.put(4, 0, 1);
+        counters.put(6, 0, 1);
+        counters.put(7, 3, 0);
+        counters.put(9, 0, 1);
+
+        assertThat(counters.getInstrumentedLines()).containsExactly(1, 2, 4, 6, 7, 9);
+        assertThat(counters.getMissedLines()).containsExactly(1, 4, 6, 9);
+        assertThat(counters.getCoveredLines()).containsExactly(2, 7);
+        assertThat(counters.getPartiallyCoveredLines()).containsExactly(2);
+        assertThat(counters.getMissedLineRanges()).containsExactly(
+                new LineRange(1), new LineRange(4, 6), new LineRange(9));
+
+        counters.put(5, 1, 0);
+
+        assertThat(counters.getCoveredLines()).containsExactly(2, 5, 7);
+        assertThat(counters.getMissedLineRanges()).containsExactly(
+                new LineRange(1), new LineRange(4), new LineRange(6), new LineRange(9));
+    }
+
+    @Test
+    void shouldQueryScatteredLinesWithoutBitmaps() {
+        var counters = new LineCounters();
+        counters.put(1000, 0, 2);
+        counters.put(2000, 1, 1);
+        counters.put(4000, 0, 1);
+        counters.put(6000, 0, 1);
+        counters.put(7000, 3, 0);
+        counters.put(9000, 0, 1);
+        counters.createViews();
+
+        assertThat(counters.getInstrumentedLines()).containsExactly(1000, 2000, 4000, 6000, 7000, 9000);
+        assertThat(counters.getMissedLines()).containsExactly(1000, 4000, 6000, 9000);
+        assertThat(counters.getCoveredLines()).containsExactly(2000, 7000);
+        assertThat(counters.getPartiallyCoveredLines()).containsExactly(2000);
+        assertThat(counters.getMissedLineRanges()).containsExactly(
+                new LineRange(1000), new LineRange(4000, 6000), new LineRange(9000));
+        assertThatExceptionOfType(UnsupportedOperationException.class)
+                .isThrownBy(() -> counters.getMissedLines().add(1));
+
+        counters.put(5000, 1, 0);
+
+        assertThat(counters.getCoveredLines()).containsExactly(2000, 5000, 7000);
+        assertThat(counters.getMissedLineRanges()).containsExactly(
+                new LineRange(1000), new LineRange(4000), new LineRange(6000), new LineRange(9000));
+    }
+
+    @Test
+    void shouldQueryScatteredRunsWithoutBitmaps() {
+        var counters = new LineCounters();
+        for (int line = 1; line <= 10; line++) {
+            counters.put(line, 1, 0);
+            counters.put(100_000 + line, 0, 1);
+        }
+        counters.compact();
+
+        assertThat(counters.isRunLengthEncoded()).isTrue();
+        assertThat(counters.getInstrumentedLines()).hasSize(20).contains(1, 10, 100_001, 100_010);
+        assertThat(counters.getCoveredLines()).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        assertThat(counters.getMissedLines()).hasSize(10).startsWith(100_001);
+        assertThat(counters.getMissedLineRanges()).containsExactly(new LineRange(100_001, 100_010));
+    }
+
+    @Test
+    void shouldMoveCursorForward() {
+        var counters = createCounters(2, 4, 5);
+        var cursor = counters.cursor();
+
+        assertThat(cursor.getLine()).isEqualTo(2);
+        assertThat(cursor.moveTo(3)).isFalse();
+        assertThat(cursor.getLine()).isEqualTo(4);
+        assertThat(cursor.getCovered(4)).isEqualTo(4);
+        assertThat(cursor.getMissed(5)).isEqualTo(1);
+        assertThat(cursor.getCovered(4)).as("cursor does not move backwards").isZero();
+        assertThat(cursor.moveTo(6)).isFalse();
+        assertThat(cursor.getLine()).isEqualTo(LineCounters.Cursor.NO_LINE);
+
+        assertThat(new LineCounters().cursor().getLine()).isEqualTo(LineCounters.Cursor.NO_LINE);
+    }
+
+    @Test
+    void shouldHandleEmptyCounters() {
+        var counters = new LineCounters();
+        counters.compact();
+
+        assertThat(counters.isEmpty()).isTrue();
+        assertThat(counters.contains(1)).isFalse();
+        assertThat(counters.getCovered(1)).isZero();
+        assertThat(counters.getLines()).isEmpty();
+        assertThat(counters).isEqualTo(new LineCounters());
+    }
+
+    private LineCounters createCounters(final int... lines) {
+        var counters = new LineCounters();
+        for (int line : lines) {
+            counters.put(line, line, line % 2);
+        }
+        return counters;
+    }
+
+    private void verifyCounters(final LineCounters counters, final int... expectedLines) {
+        assertThat(counters.size()).isEqualTo(expectedLines.length);
+        assertThat(counters.getLines()).containsExactly(expectedLines);
+
+        List<Integer> visited = new ArrayList<>();
+        counters.forEach((line, covered, missed) -> {
+            assertThat(covered).isEqualTo(line);
+            assertThat(missed).isEqualTo(line % 2);
+            visited.add(line);
+        });
+        assertThat(visited).hasSize(expectedLines.length);
+
+        for (int line : expectedLines) {
+            assertThat(counters.contains(line)).isTrue();
+            assertThat(counters.getCovered(line)).isEqualTo(line);
+            assertThat(counters.getMissed(line)).isEqualTo(line % 2);
+            assertThat(counters.contains(line + 1_000_000_000)).isFalse();
+        }
+        assertThat(counters.getCovered(-1)).isZero();
+        assertThat(counters.getMissed(-1)).isZero();
+    }
+}
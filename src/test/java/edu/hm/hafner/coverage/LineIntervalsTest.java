@@ -0,0 +1,70 @@
+package edu.hm.hafner.coverage;
+
+import org.junit.jupiter.api.Test;
+
+import static edu.hm.hafner.coverage.assertions.Assertions.*;
+
+class LineIntervalsTest {
+    @Test
+    void shouldJoinAdjacentAndOverlappingRanges() {
+        var intervals = new LineIntervals();
+        assertThat(intervals.isEmpty()).isTrue();
+        assertThat(intervals.contains(1)).isFalse();
+
+        intervals.addRange(10, 20);
+        intervals.addRange(30, 40);
+        intervals.add(21);
+        intervals.addRange(5, 7);
+        assertThat(intervals).hasToString("[5-7, 10-21, 30-40]");
+
+        intervals.addRange(18, 35);
+        assertThat(intervals).hasToString("[5-7, 10-40]");
+        intervals.add(8);
+        intervals.add(9);
+        assertThat(intervals).hasToString("[5-40]");
+        assertThat(intervals.getIntervalCount()).isEqualTo(1);
+
+        intervals.add(50);
+        intervals.addRange(45, 46);
+        assertThat(intervals).hasToString("[5-40, 45-46, 50]");
+        assertThat(intervals.contains(5)).isTrue();
+        assertThat(intervals.contains(40)).isTrue();
+        assertThat(intervals.contains(41)).isFalse();
+        assertThat(intervals.contains(4)).isFalse();
+        assertThat(intervals.contains(50)).isTrue();
+        assertThat(intervals.toLineSet()).hasSize(39).startsWith(5).endsWith(50);
+        assertThat(intervals.toIntervals()).containsExactly(5, 40, 45, 46, 50, 50);
+        assertThat(LineIntervals.fromIntervals(intervals.toIntervals())).isEqualTo(intervals);
+    }
+
+    @Test
+    void shouldHandleExtremeLines() {
+        var intervals = new LineIntervals();
+        intervals.addRange(Integer.MAX_VALUE - 1, Integer.MAX_VALUE);
+        intervals.addRange(Integer.MIN_VALUE, Integer.MIN_VALUE + 1);
+
+        assertThat(intervals.contains(Integer.MAX_VALUE)).isTrue();
+        assertThat(intervals.contains(Integer.MIN_VALUE)).isTrue();
+        assertThat(intervals.contains(0)).isFalse();
+        assertThat(intervals.toIntervals()).containsExactly(
+                Integer.MIN_VALUE, Integer.MIN_VALUE + 1, Integer.MAX_VALUE - 1, Integer.MAX_VALUE);
+        assertThat(LineIntervals.fromIntervals(intervals.toIntervals())).isEqualTo(intervals);
+    }
+
+    @Test
+    void shouldCompareIntervalsByLines() {
+        var ascending = new LineIntervals();
+        ascending.addRange(1, 3);
+        ascending.add(5);
+        var descending = new LineIntervals();
+        descending.add(5);
+        descending.add(3);
+        descending.addRange(1, 2);
+
+        assertThat(ascending).isEqualTo(descending).hasSameHashCodeAs(descending);
+        assertThat(ascending.copy()).isEqualTo(ascending);
+
+        descending.add(4);
+        assertThat(ascending).isNotEqualTo(descending);
+    }
+}
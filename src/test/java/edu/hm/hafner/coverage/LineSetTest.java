@@ -0,0 +1,94 @@
+package edu.hm.hafner.coverage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+
+import static edu.hm.hafner.coverage.assertions.Assertions.*;
+
+class LineSetTest {
+    private static final List<Integer> LINES = List.of(-2, 5, 6, 7, 20, 100);
+
+    @Test
+    void shouldBehaveLikeTreeSet() {
+        var lines = createLineSet();
+        var expected = new TreeSet<>(LINES);
+
+        assertThat(lines).hasSize(6).containsExactlyElementsOf(expected).isEqualTo(expected);
+        assertThat(lines).hasSameHashCodeAs(expected);
+        assertThat(lines.toString()).isEqualTo(expected.toString());
+        assertThat(lines.descendingSet()).containsExactlyElementsOf(expected.descendingSet());
+        assertThat(lines.descendingIterator()).toIterable().containsExactly(100, 20, 7, 6, 5, -2);
+        assertThat(lines.comparator()).isNull();
+
+        assertThat(lines.first()).isEqualTo(-2);
+        assertThat(lines.last()).isEqualTo(100);
+        for (int line = -5; line < 105; line++) {
+            assertThat(lines.contains(line)).isEqualTo(expected.contains(line));
+            assertThat(lines.lower(line)).isEqualTo(expected.lower(line));
+            assertThat(lines.floor(line)).isEqualTo(expected.floor(line));
+            assertThat(lines.ceiling(line)).isEqualTo(expected.ceiling(line));
+            assertThat(lines.higher(line)).isEqualTo(expected.higher(line));
+        }
+        assertThat(lines.contains((Object) "5")).isFalse();
+        assertThat(lines.floor(Integer.MAX_VALUE)).isEqualTo(100);
+        assertThat(lines.ceiling(Integer.MIN_VALUE)).isEqualTo(-2);
+        assertThat(lines.higher(Integer.MAX_VALUE)).isNull();
+        assertThat(lines.lower(Integer.MIN_VALUE)).isNull();
+    }
+
+    @Test
+    void shouldCreateSubSets() {
+        var lines = createLineSet();
+        var expected = new TreeSet<>(LINES);
+
+        assertThat(lines.subSet(5, 20)).isEqualTo(expected.subSet(5, 20));
+        assertThat(lines.subSet(5, false, 20, true)).isEqualTo(expected.subSet(5, false, 20, true));
+        assertThat(lines.subSet(8, 19)).isEmpty();
+        assertThat(lines.headSet(7)).isEqualTo(expected.headSet(7));
+        assertThat(lines.headSet(7, true)).isEqualTo(expected.headSet(7, true));
+        assertThat(lines.tailSet(7)).isEqualTo(expected.tailSet(7));
+        assertThat(lines.tailSet(7, false)).isEqualTo(expected.tailSet(7, false));
+        assertThat(lines.tailSet(1000)).isEmpty();
+        assertThat(lines.headSet(-100)).isEmpty();
+        assertThat(lines.subSet(6, true, 7, true).first()).isEqualTo(6);
+
+        assertThatIllegalArgumentException().isThrownBy(() -> lines.subSet(20, 5));
+    }
+
+    @Test
+    void shouldBeUnmodifiable() {
+        var lines = createLineSet();
+
+        assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> lines.add(1));
+        assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> lines.remove(5));
+        assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(lines::pollFirst);
+        assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(lines::pollLast);
+        assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(lines::clear);
+    }
+
+    @Test
+    void shouldHandleEmptySet() {
+        var empty = new LineSet(new BitSet(), 10);
+
+        assertThat(empty).isEmpty();
+        assertThat(empty.iterator()).isExhausted();
+        assertThat(empty.descendingIterator()).isExhausted();
+        assertThat(empty.floor(10)).isNull();
+        assertThat(empty.ceiling(10)).isNull();
+        assertThatExceptionOfType(NoSuchElementException.class).isThrownBy(empty::first);
+        assertThatExceptionOfType(NoSuchElementException.class).isThrownBy(empty::last);
+        assertThatExceptionOfType(NoSuchElementException.class).isThrownBy(() -> empty.iterator().next());
+    }
+
+    private LineSet createLineSet() {
+        var bits = new BitSet();
+        for (int line : LINES) {
+            bits.set(line + 2);
+        }
+        return new LineSet(bits, -2);
+    }
+}
@@ -1,5 +1,6 @@
 package edu.hm.hafner.coverage;
 
+import org.apache.commons.lang3.SerializationUtils;
 import org.assertj.core.api.ThrowingConsumer;
 import org.junit.jupiter.api.Test;
 import org.junitpioneer.jupiter.DefaultLocale;
@@ -7,11 +8,13 @@ import org.junitpioneer.jupiter.Issue;
 
 import edu.hm.hafner.coverage.Coverage.CoverageBuilder;
 import edu.hm.hafner.coverage.Mutation.MutationBuilder;
+import edu.hm.hafner.util.TreeString;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 
 import static edu.hm.hafner.coverage.Metric.*;
 import static edu.hm.hafner.coverage.Metric.CLASS;
@@ -80,6 +83,309 @@ class NodeTest {
         assertThat(parent).hasOnlyChildren(child1, child2);
     }
 
+    @Test
+    void shouldProvideViewsOfChildrenAndValues() {
+        var parent = new ModuleNode("Parent");
+        var child1 = new PackageNode("ChildOne");
+        var child2 = new PackageNode("ChildTwo");
+        var value = new Value(LOC, 10);
+        parent.addValue(value);
+
+        var children = parent.childrenView();
+        assertThat(children).isEmpty();
+        assertThat(parent.childCount()).isZero();
+
+        parent.addAllChildren(child1, child2);
+        assertThat(children).containsExactly(child1, child2);
+        assertThat(parent.childCount()).isEqualTo(2);
+        assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> children.remove(child1));
+
+        List<Node> visited = new ArrayList<>();
+        parent.forEachChild(visited::add);
+        assertThat(visited).containsExactly(child1, child2);
+        visited.clear();
+        parent.childrenSpliterator().forEachRemaining(visited::add);
+        assertThat(visited).containsExactly(child1, child2);
+
+        assertThat(parent.valuesView()).containsExactly(value);
+        assertThatExceptionOfType(UnsupportedOperationException.class).isThrownBy(() -> parent.valuesView().clear());
+        List<Value> values = new ArrayList<>();
+        parent.forEachValue(values::add);
+        assertThat(values).containsExactly(value);
+    }
+
+    @Test
+    void shouldKeepIndexOfChildrenInSync() {
+        var parent = new PackageNode("Parent");
+        var file = new FileNode("File.java", "old");
+        parent.addChild(file);
+
+        assertThat(parent.hasChild("oldFile.java")).isTrue();
+
+        file.setRelativePath(TreeString.valueOf("new"));
+        assertThat(parent.hasChild("oldFile.java")).isFalse();
+        assertThat(parent.hasChild("newFile.java")).isTrue();
+
+        parent.removeChild(file);
+        assertThat(parent.hasChild("newFile.java")).isFalse();
+        assertThat(parent).hasNoChildren();
+
+        parent.addChild(file);
+        assertThat(parent.hasChild("newFile.java")).isTrue();
+        assertThatIllegalArgumentException().isThrownBy(() -> parent.addChild(new FileNode("File.java", "new")));
+    }
+
+    @Test
+    void shouldKeepRegistryOfTreeInSync() {
+        var root = new ModuleNode("Root");
+        var pkg = root.findOrCreatePackageNode("edu.hm.hafner");
+        var file = pkg.findOrCreateFileNode("File.java", TreeString.valueOf("edu/hm/hafner/File.java"));
+        var clazz = file.findOrCreateClassNode("edu.hm.hafner.File");
+
+        assertThat(root.findPackage("edu.hm.hafner")).contains(pkg);
+        assertThat(root.findFile("edu/hm/hafner/File.java")).contains(file);
+        assertThat(root.findFile("File.java")).contains(file);
+        assertThat(root.findClass("edu.hm.hafner.File")).contains(clazz);
+        assertThat(pkg.findClass("edu.hm.hafner.File")).contains(clazz);
+        assertThat(pkg.findOrCreateFileNode("File.java", TreeString.valueOf("edu/hm/hafner/File.java"))).isSameAs(file);
+
+        file.setRelativePath(TreeString.valueOf("src/File.java"));
+        assertThat(root.findFile("edu/hm/hafner/File.java")).isEmpty();
+        assertThat(root.findFile("src/File.java")).contains(file);
+
+        var other = root.findOrCreatePackageNode("other");
+        assertThat(other.findClass("edu.hm.hafner.File")).isEmpty();
+
+        pkg.removeChild(file);
+        assertThat(root.findFile("src/File.java")).isEmpty();
+        assertThat(root.findClass("edu.hm.hafner.File")).isEmpty();
+        assertThat(file.findClass("edu.hm.hafner.File")).contains(clazz);
+
+        other.addChild(file);
+        assertThat(root.findClass("edu.hm.hafner.File")).contains(clazz);
+        assertThat(pkg.findClass("edu.hm.hafner.File")).isEmpty();
+        assertThat(other.findClass("edu.hm.hafner.File")).contains(clazz);
+    }
+
+    @Test
+    void shouldFindRenamedNodesInRegistry() {
+        var root = new ModuleNode("Root");
+        var pkg = root.findOrCreatePackageNode("edu.hm.hafner");
+        var file = pkg.findOrCreateFileNode("File.java", TreeString.valueOf("edu/hm/hafner/File.java"));
+        var clazz = file.findOrCreateClassNode("edu.hm.hafner.File");
+
+        assertThat(root.findPackage("edu.hm.hafner")).contains(pkg);
+        assertThat(root.findClass("edu.hm.hafner.File")).contains(clazz);
+
+        pkg.setName("edu.hm.renamed");
+        clazz.setName("edu.hm.renamed.File");
+
+        assertThat(root.findPackage("edu.hm.hafner")).isEmpty();
+        assertThat(root.findPackage("edu.hm.renamed")).contains(pkg);
+        assertThat(root.findClass("edu.hm.hafner.File")).isEmpty();
+        assertThat(root.findClass("edu.hm.renamed.File")).contains(clazz);
+        assertThat(root.getChildren()).containsExactly(pkg);
+        assertThat(root.find(PACKAGE, "edu.hm.renamed")).contains(pkg);
+    }
+
+    @Test
+    void shouldIndexLocalValuesByMetric() {
+        var node = new MethodNode("method", "()V");
+        var loc = new Value(LOC, 10);
+        var complexity = new Value(CYCLOMATIC_COMPLEXITY, 3);
+        var line = new CoverageBuilder().withMetric(LINE).withCovered(1).withMissed(2).build();
+
+        node.addValue(loc);
+        node.addValue(complexity);
+        node.addValue(line);
+        assertThat(node.getValues()).containsExactly(loc, complexity, line);
+        assertThat(getLocalValue(node, LOC)).isSameAs(loc);
+        assertThat(hasLocalValue(node, BRANCH)).isFalse();
+
+        var changedLoc = new Value(LOC, 12);
+        node.replaceValue(changedLoc);
+        assertThat(node.getValues()).containsExactly(complexity, line, changedLoc);
+        assertThat(getLocalValue(node, LOC)).isSameAs(changedLoc);
+        assertThatIllegalArgumentException().isThrownBy(() -> node.addValue(complexity))
+                .withMessageContaining("There is already a leaf");
+
+        var restored = SerializationUtils.clone(node);
+        assertThat(restored).isEqualTo(node);
+        assertThat(getLocalValue(restored, CYCLOMATIC_COMPLEXITY)).isEqualTo(complexity);
+
+        restored.removeValues();
+        assertThat(hasLocalValue(restored, LOC)).isFalse();
+        restored.addValue(loc);
+        assertThat(restored.getValues()).containsExactly(loc);
+    }
+
+    private static Value getLocalValue(final Node node, final Metric metric) {
+        return Objects.requireNonNull(node.getLocalValue(metric));
+    }
+
+    private static boolean hasLocalValue(final Node node, final Metric metric) {
+        return node.getLocalValue(metric) != null;
+    }
+
+    @Test
+    void shouldInvalidateAggregatedValuesOnChanges() {
+        var builder = new CoverageBuilder().withMetric(LINE);
+        var root = new ModuleNode("Root");
+        var pkg = root.findOrCreatePackageNode("edu.hm.hafner");
+        var file = pkg.findOrCreateFileNode("File.java", TreeString.valueOf("edu/hm/hafner/File.java"));
+        file.addValue(builder.withCovered(1).withMissed(1).build());
+
+        assertThat(root.getValue(LINE)).contains(builder.withCovered(1).withMissed(1).build());
+        assertThat(root.getValue(LOC)).contains(new Value(LOC, 2));
+
+        file.replaceValue(builder.withCovered(3).withMissed(1).build());
+        assertThat(root.getValue(LINE)).contains(builder.withCovered(3).withMissed(1).build());
+        assertThat(root.getValue(LOC)).contains(new Value(LOC, 4));
+
+        var other = new FileNode("Other.java", "edu/hm/hafner/Other.java");
+        other.addValue(builder.withCovered(0).withMissed(2).build());
+        pkg.addChild(other);
+        assertThat(root.getValue(LINE)).contains(builder.withCovered(3).withMissed(3).build());
+        assertThat(root.getValue(FILE)).contains(new CoverageBuilder().withMetric(FILE).withCovered(1).withMissed(1).build());
+
+        pkg.removeChild(file);
+        assertThat(root.getValue(LINE)).contains(builder.withCovered(0).withMissed(2).build());
+        assertThat(pkg.getValue(LOC)).contains(new Value(LOC, 2));
+
+        pkg.removeChild(other);
+        assertThat(root.getValue(LINE)).isEmpty();
+    }
+
+    @Test
+    void shouldAggregateAllMetricsInSingleTraversal() {
+        var builder = new CoverageBuilder();
+        var root = new ModuleNode("Root");
+        var file = root.findOrCreatePackageNode("edu.hm.hafner")
+                .findOrCreateFileNode("File.java", TreeString.valueOf("edu/hm/hafner/File.java"));
+        var method = file.findOrCreateClassNode("edu.hm.hafner.File").createMethodNode("method", "()V");
+        method.addValue(builder.withMetric(LINE).withCovered(3).withMissed(1).build());
+        method.addValue(new Value(CYCLOMATIC_COMPLEXITY, 5));
+        method.addValue(new Value(COHESION, 1, 2));
+
+        assertThat(root.aggregateValues()).containsExactly(
+                builder.withMetric(MODULE).withCovered(1).withMissed(0).build(),
+                builder.withMetric(PACKAGE).withCovered(1).withMissed(0).build(),
+                builder.withMetric(FILE).withCovered(1).withMissed(0).build(),
+                builder.withMetric(CLASS).withCovered(1).withMissed(0).build(),
+                builder.withMetric(METHOD).withCovered(1).withMissed(0).build(),
+                builder.withMetric(LINE).withCovered(3).withMissed(1).build(),
+                new Value(LOC, 4),
+                new Value(CYCLOMATIC_COMPLEXITY, 5),
+                new Value(COHESION, 1, 2));
+        assertThat(root.getValue(BRANCH)).isEmpty();
+
+        var other = file.findOrCreateClassNode("edu.hm.hafner.Other").createMethodNode("other", "()V");
+        other.addValue(builder.withMetric(LINE).withCovered(0).withMissed(2).build());
+        other.addValue(new Value(CYCLOMATIC_COMPLEXITY, 2));
+        other.addValue(new Value(COHESION, 3, 4));
+
+        assertThat(root.getMetricsDistribution()).containsValues(
+                builder.withMetric(CLASS).withCovered(1).withMissed(1).build(),
+                builder.withMetric(LINE).withCovered(3).withMissed(3).build(),
+                new Value(LOC, 6),
+                new Value(CYCLOMATIC_COMPLEXITY, 7),
+                new Value(COHESION, 3, 4));
+        assertThat(root.aggregateValues()).allSatisfy(
+                value -> assertThat(root.getValue(value.getMetric())).contains(value));
+    }
+
+    @Test
+    void shouldNotKeepAggregatedValuesOfReadOnlyOperations() {
+        var root = new ModuleNode("Root");
+        var file = root.findOrCreatePackageNode("edu.hm.hafner")
+                .findOrCreateFileNode("File.java", TreeString.valueOf("edu/hm/hafner/File.java"));
+        file.addValue(new CoverageBuilder().withMetric(LINE).withCovered(3).withMissed(1).build());
+
+        assertThat(root.aggregateValues()).isNotEmpty();
+        assertThat(root.computeDelta(root.copyTree())).isNotEmpty();
+        assertThat(file.toString()).isEqualTo("[FILE] File.java <0, LINE: 75.00% (3/4)>");
+        assertThat(root.hasAllAggregatedValues()).isFalse();
+        assertThat(file.hasAllAggregatedValues()).isFalse();
+
+        root.aggregateAllValues();
+        assertThat(root.hasAllAggregatedValues()).isTrue();
+        assertThat(file.hasAllAggregatedValues()).isTrue();
+        assertThat(root.aggregateValues()).contains(new Value(LOC, 4));
+    }
+
+    @Test
+    void shouldCacheAggregatedValuesUntilTreeChanges() {
+        var root = new ModuleNode("Root");
+        var file = root.findOrCreatePackageNode("edu.hm.hafner")
+                .findOrCreateFileNode("File.java", TreeString.valueOf("edu/hm/hafner/File.java"));
+        file.addValue(new CoverageBuilder().withMetric(LINE).withCovered(3).withMissed(1).build());
+
+        var line = root.getValue(LINE);
+        assertThat(line).contains(new CoverageBuilder().withMetric(LINE).withCovered(3).withMissed(1).build());
+        assertThat(root.getValue(LINE)).isSameAs(line);
+
+        file.replaceValue(new CoverageBuilder().withMetric(LINE).withCovered(4).withMissed(0).build());
+        assertThat(root.getValue(LINE)).isNotSameAs(line)
+                .contains(new CoverageBuilder().withMetric(LINE).withCovered(4).withMissed(0).build());
+    }
+
+    @Test
+    void shouldFreezeTree() {
+        var root = new ModuleNode("Root");
+        var pkg = root.findOrCreatePackageNode("edu.hm.hafner");
+        var file = pkg.findOrCreateFileNode("File.java", TreeString.valueOf("edu/hm/hafner/File.java"));
+        var line = new CoverageBuilder().withMetric(LINE).withCovered(3).withMissed(1).build();
+        file.addValue(line);
+        file.addCounters(10, 1, 0);
+
+        assertThat(root.isFrozen()).isFalse();
+        assertThat(root.freeze()).isSameAs(root);
+        assertThat(root.isFrozen()).isTrue();
+        assertThat(file.isFrozen()).isTrue();
+
+        assertThat(root.getChildren()).containsExactly(pkg).isSameAs(root.getChildren());
+        assertThat(file.getValues()).containsExactly(line).isSameAs(file.getValues());
+        assertThat(root.getValue(LINE)).contains(line);
+        assertThat(root.findFile("edu/hm/hafner/File.java")).contains(file);
+
+        assertThatExceptionOfType(AssertionError.class).isThrownBy(() -> pkg.addChild(new FileNode("Other.java", "path")))
+                .withMessageContaining("frozen");
+        assertThatExceptionOfType(AssertionError.class).isThrownBy(() -> file.replaceValue(line));
+        assertThatExceptionOfType(AssertionError.class).isThrownBy(() -> file.addCounters(11, 1, 0));
+        assertThatExceptionOfType(AssertionError.class).isThrownBy(() -> root.removeChild(pkg));
+        assertThat(file.getCoveredLines()).containsExactly(10);
+
+        var copy = root.copyTree();
+        assertThat(copy).isEqualTo(root).isNotSameAs(root);
+        assertThat(copy.isFrozen()).isFalse();
+        copy.findOrCreatePackageNode("other");
+        assertThat(copy.getChildren()).hasSize(2);
+    }
+
+    @Test
+    void shouldNotAttachFrozenChild() {
+        var frozen = new PackageNode("frozen");
+        frozen.freeze();
+
+        var parent = new ModuleNode("Root");
+        assertThatExceptionOfType(AssertionError.class).isThrownBy(() -> parent.addChild(frozen))
+                .withMessageContaining("frozen");
+        assertThat(parent).hasNoChildren();
+        assertThat(frozen).doesNotHaveParent();
+
+        var copy = frozen.copyTree();
+        parent.addChild(copy);
+        assertThat(parent).hasOnlyChildren(copy);
+        assertThat(frozen).doesNotHaveParent();
+
+        var other = new PackageNode("other");
+        other.freeze();
+        var merged = Node.merge(List.of(frozen, other));
+        assertThat(merged.getChildren()).hasSize(2).noneMatch(Node::isFrozen);
+        assertThat(frozen).doesNotHaveParent();
+        assertThat(other).doesNotHaveParent();
+    }
+
     @Test
     void shouldPrintAllMetricsForNodeAndChildNodes() {
         var parent = new ModuleNode("Parent");
@@ -95,6 +401,38 @@ class NodeTest {
         assertThat(parent.getMetrics()).containsOnly(MODULE, PACKAGE, FILE, LINE, LOC);
     }
 
+    @Test
+    void shouldUpdateCachedMetricsOnChanges() {
+        var parent = new ModuleNode("Parent");
+        var child = new PackageNode("Child");
+        var file = new FileNode("File.java", "path");
+        parent.addChild(child);
+        child.addChild(file);
+
+        assertThat(parent.getMetrics()).isEmpty();
+        assertThat(parent.getValueMetrics()).isEmpty();
+        assertThat(parent.containsMetric(LINE)).isFalse();
+
+        file.addValue(new CoverageBuilder().withMetric(LINE).withCovered(1).withMissed(0).build());
+        assertThat(parent.getMetrics()).containsExactly(MODULE, PACKAGE, FILE, LINE, LOC)
+                .isSameAs(parent.getMetrics());
+        assertThat(parent.getValueMetrics()).containsExactly(LINE);
+        assertThat(parent.containsMetric(LINE)).isTrue();
+        assertThatExceptionOfType(UnsupportedOperationException.class)
+                .isThrownBy(() -> parent.getMetrics().add(BRANCH));
+        assertThatExceptionOfType(UnsupportedOperationException.class)
+                .isThrownBy(() -> parent.getValueMetrics().clear());
+
+        child.removeChild(file);
+        assertThat(parent.getMetrics()).isEmpty();
+        assertThat(parent.getValueMetrics()).isEmpty();
+        assertThat(parent.containsMetric(LINE)).isFalse();
+
+        child.addChild(file);
+        assertThat(parent.getMetrics()).containsExactly(MODULE, PACKAGE, FILE, LINE, LOC);
+        assertThat(parent.containsMetric(LINE)).isTrue();
+    }
+
     @Test
     void shouldCalculateDistributedMetrics() {
         var builder = new CoverageBuilder();
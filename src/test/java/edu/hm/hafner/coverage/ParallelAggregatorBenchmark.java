@@ -0,0 +1,134 @@
+package edu.hm.hafner.coverage;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the sequential aggregation of all values of a large tree with the parallel aggregation of
+ * {@link ParallelAggregator} for an increasing number of cores. Each invocation aggregates a fresh copy of the tree,
+ * since the aggregated values are kept in the nodes.
+ *
+ * <p>
+ * Run the benchmark with {@code mvn test -Pbenchmark}.
+ * </p>
+ *
+ * @author Ullrich Hafner
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings("PMD.DoNotUseThreads") // the benchmark measures the aggregation with different pools of threads
+public class ParallelAggregatorBenchmark {
+    /**
+     * Aggregates the values of the tree sequentially.
+     *
+     * @param tree
+     *         the tree to aggregate
+     *
+     * @return the aggregated values
+     */
+    @Benchmark
+    public List<Value> aggregateSequentially(final Tree tree) {
+        var root = tree.getRoot();
+        root.aggregateAllValues();
+        return root.aggregateValues();
+    }
+
+    /**
+     * Aggregates the values of the tree in parallel.
+     *
+     * @param tree
+     *         the tree to aggregate
+     * @param workers
+     *         the aggregator that uses a pool with the configured number of cores
+     *
+     * @return the aggregated values
+     */
+    @Benchmark
+    public List<Value> aggregateInParallel(final Tree tree, final Workers workers) {
+        return workers.getAggregator().aggregateValues(tree.getRoot());
+    }
+
+    @Test
+    void runBenchmarks() throws RunnerException {
+        var options = new OptionsBuilder()
+                .include(getClass().getName())
+                .build();
+        new Runner(options).run();
+    }
+
+    /**
+     * Provides a fresh copy of a large tree for each invocation.
+     */
+    @State(Scope.Thread)
+    public static class Tree {
+        private final Node template = ParallelAggregatorTest.createTree(40, 25, 40);
+        private Node root = template;
+
+        /**
+         * Copies the tree, so that no aggregated values are available.
+         */
+        @Setup(Level.Invocation)
+        public void copyTree() {
+            root = template.copyTree();
+        }
+
+        Node getRoot() {
+            return root;
+        }
+    }
+
+    /**
+     * Provides a parallel aggregator that uses a pool with the configured number of cores.
+     */
+    @State(Scope.Benchmark)
+    public static class Workers {
+        @Param({"1", "2", "4", "8"})
+        private int cores;
+
+        private ForkJoinPool pool = ForkJoinPool.commonPool();
+        private ParallelAggregator aggregator = new ParallelAggregator();
+
+        /**
+         * Creates the pool with the configured number of cores.
+         */
+        @Setup(Level.Trial)
+        public void createPool() {
+            pool = new ForkJoinPool(cores);
+            aggregator = new ParallelAggregator(pool, ParallelAggregator.DEFAULT_THRESHOLD);
+        }
+
+        /**
+         * Shuts down the pool.
+         */
+        @TearDown(Level.Trial)
+        public void shutdownPool() {
+            pool.shutdown();
+        }
+
+        ParallelAggregator getAggregator() {
+            return aggregator;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package edu.hm.hafner.coverage;
+
+import org.junit.jupiter.api.Test;
+
+import edu.hm.hafner.coverage.Coverage.CoverageBuilder;
+import edu.hm.hafner.util.TreeString;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static edu.hm.hafner.coverage.Metric.*;
+import static edu.hm.hafner.coverage.assertions.Assertions.*;
+
+@SuppressWarnings("PMD.DoNotUseThreads") // the aggregator is tested with different pools of threads
+class ParallelAggregatorTest {
+    @Test
+    void shouldComputeSameResultsAsSequentialAggregation() {
+        var sequential = createTree(3, 5, 4);
+        var parallel = sequential.copyTree();
+
+        var pool = new ForkJoinPool(4);
+        try {
+            var values = new ParallelAggregator(pool, 10).aggregateValues(parallel);
+
+            assertThat(values).isEqualTo(sequential.aggregateValues());
+            assertThat(parallel.getAll(Metric.FILE)).zipSatisfy(sequential.getAll(Metric.FILE),
+                    (actual, expected) -> assertThat(actual.aggregateValues()).isEqualTo(expected.aggregateValues()));
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void shouldRecomputeValuesAfterChanges() {
+        var root = createTree(2, 2, 2);
+        var aggregator = new ParallelAggregator(ForkJoinPool.commonPool(), 1);
+
+        assertThat(aggregator.aggregateValues(root)).contains(new Value(LOC, 80));
+
+        var file = root.getAllFileNodes().get(0);
+        file.replaceValue(new CoverageBuilder().withMetric(LINE).withCovered(10).withMissed(5).build());
+
+        assertThat(aggregator.aggregateValues(root)).contains(new Value(LOC, 80 - 10 + 10 + 5));
+    }
+
+    @Test
+    void shouldRejectInvalidThreshold() {
+        assertThatExceptionOfType(AssertionError.class)
+                .isThrownBy(() -> new ParallelAggregator(ForkJoinPool.commonPool(), 0));
+    }
+
+    static Node createTree(final int modules, final int packages, final int files) {
+        var container = new ContainerNode("Container");
+        for (int m = 0; m < modules; m++) {
+            var module = new ModuleNode("module-" + m);
+            container.addChild(module);
+            for (int p = 0; p < packages; p++) {
+                createPackage(module, "edu.hm.hafner.p" + p, files);
+            }
+        }
+        return container;
+    }
+
+    private static void createPackage(final ModuleNode module, final String packageName, final int files) {
+        var builder = new CoverageBuilder();
+        var packageNode = module.findOrCreatePackageNode(packageName);
+        var path = packageName.replace('.', '/');
+        for (int f = 0; f < files; f++) {
+            var file = packageNode.findOrCreateFileNode("File" + f + ".java",
+                    TreeString.valueOf(path + "/File" + f + ".java"));
+            file.addValue(builder.withMetric(LINE).withCovered(f % 7).withMissed(10 - f % 7).build());
+            var classNode = file.findOrCreateClassNode(packageName + ".File" + f);
+            for (int i = 0; i < 3; i++) {
+                var method = classNode.createMethodNode("method" + i, "()V");
+                method.addValue(builder.withMetric(BRANCH).withCovered(i).withMissed(2).build());
+                method.addValue(new Value(CYCLOMATIC_COMPLEXITY, i + 1));
+                method.addValue(new Value(COHESION, i, 3));
+            }
+        }
+    }
+}
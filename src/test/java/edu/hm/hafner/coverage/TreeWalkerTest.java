@@ -0,0 +1,156 @@
+package edu.hm.hafner.coverage;
+
+import org.junit.jupiter.api.Test;
+
+import edu.hm.hafner.util.TreeString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static edu.hm.hafner.coverage.assertions.Assertions.*;
+
+class TreeWalkerTest {
+    @Test
+    void shouldVisitNodesInPreOrderAndPostOrder() {
+        var root = createTree();
+
+        var visitor = new RecordingVisitor();
+        assertThat(new TreeWalker(root).walk(visitor)).isTrue();
+
+        assertThat(visitor.getEntered()).containsExactly("Root", "edu.hm.hafner", "File.java", "File", "method()V",
+                "Other.java", "other");
+        assertThat(visitor.getLeft()).containsExactly("method()V", "File", "File.java", "Other.java", "edu.hm.hafner",
+                "other", "Root");
+    }
+
+    @Test
+    void shouldPruneSubtreesWithoutTargetMetric() {
+        var root = createTree();
+
+        var visitor = new RecordingVisitor();
+        assertThat(new TreeWalker(root, Metric.FILE).walk(visitor)).isTrue();
+
+        assertThat(visitor.getEntered()).containsExactly("Root", "edu.hm.hafner", "File.java", "Other.java");
+        assertThat(visitor.getFiles()).containsExactly("File.java", "Other.java");
+    }
+
+    @Test
+    void shouldSkipChildrenAndTerminate() {
+        var root = createTree();
+
+        var skipping = new RecordingVisitor() {
+            @Override
+            public VisitResult visitFile(final FileNode file) {
+                super.visitFile(file);
+                return VisitResult.SKIP_CHILDREN;
+            }
+        };
+        assertThat(new TreeWalker(root).walk(skipping)).isTrue();
+        assertThat(skipping.getEntered()).containsExactly("Root", "edu.hm.hafner", "File.java", "Other.java", "other");
+        assertThat(skipping.getLeft()).contains("File.java").doesNotContain("File");
+
+        var terminating = new RecordingVisitor() {
+            @Override
+            public VisitResult visitFile(final FileNode file) {
+                super.visitFile(file);
+                return VisitResult.TERMINATE;
+            }
+        };
+        assertThat(new TreeWalker(root).walk(terminating)).isFalse();
+        assertThat(terminating.getEntered()).containsExactly("Root", "edu.hm.hafner", "File.java");
+        assertThat(terminating.getLeft()).isEmpty();
+    }
+
+    @Test
+    void shouldWalkDeepTreesWithoutRecursion() {
+        var root = new ModuleNode("Root");
+        Node current = root;
+        for (int i = 0; i < 5_000; i++) {
+            var child = new PackageNode("p" + i);
+            current.addChild(child);
+            current = child;
+        }
+        current.addChild(new FileNode("Deep.java", "deep/Deep.java"));
+
+        var visitor = new RecordingVisitor();
+        assertThat(new TreeWalker(root).walk(visitor)).isTrue();
+
+        assertThat(visitor.getEntered()).hasSize(5_002);
+        assertThat(visitor.getFiles()).containsExactly("Deep.java");
+        assertThat(visitor.getLeft()).last().isEqualTo("Root");
+    }
+
+    @Test
+    void shouldWalkDeepTreesWithTargetMetricWithoutRecursion() {
+        var root = new ModuleNode("Root");
+        Node current = root;
+        for (int i = 0; i < 10_000; i++) {
+            var child = new PackageNode("p" + i);
+            current.addChild(child);
+            current = child;
+        }
+        var file = new FileNode("Deep.java", "deep/Deep.java");
+        current.addChild(file);
+        file.createClassNode("Deep").createMethodNode("method", "()V");
+
+        var visitor = new RecordingVisitor();
+        assertThat(new TreeWalker(root, Metric.FILE).walk(visitor)).isTrue();
+
+        assertThat(visitor.getEntered()).hasSize(10_002).doesNotContain("Deep", "method()V");
+        assertThat(visitor.getFiles()).containsExactly("Deep.java");
+        assertThat(visitor.getLeft()).last().isEqualTo("Root");
+        assertThat(root.getMetricsOfDescendants()).containsExactlyInAnyOrder(
+                Metric.PACKAGE, Metric.FILE, Metric.CLASS, Metric.METHOD);
+
+        var methods = new RecordingVisitor();
+        assertThat(new TreeWalker(root, Metric.METHOD).walk(methods)).isTrue();
+        assertThat(methods.getEntered()).hasSize(10_004).endsWith("Deep", "method()V");
+    }
+
+    private ModuleNode createTree() {
+        var root = new ModuleNode("Root");
+        var file = root.findOrCreatePackageNode("edu.hm.hafner")
+                .findOrCreateFileNode("File.java", TreeString.valueOf("edu/hm/hafner/File.java"));
+        file.findOrCreateClassNode("File").createMethodNode("method", "()V");
+        file.getParent().addChild(new FileNode("Other.java", "edu/hm/hafner/Other.java"));
+        root.findOrCreatePackageNode("other");
+        return root;
+    }
+
+    private static class RecordingVisitor implements NodeVisitor {
+        private final List<String> entered = new ArrayList<>();
+        private final List<String> left = new ArrayList<>();
+        private final List<String> files = new ArrayList<>();
+
+        List<String> getEntered() {
+            return entered;
+        }
+
+        List<String> getLeft() {
+            return left;
+        }
+
+        List<String> getFiles() {
+            return files;
+        }
+
+        @Override
+        public VisitResult visitNode(final Node node) {
+            entered.add(node.getId());
+            return VisitResult.CONTINUE;
+        }
+
+        @Override
+        public VisitResult visitFile(final FileNode file) {
+            files.add(file.getName());
+            entered.add(file.getName());
+            return VisitResult.CONTINUE;
+        }
+
+        @Override
+        public VisitResult leaveNode(final Node node) {
+            left.add(node instanceof FileNode ? node.getName() : node.getId());
+            return VisitResult.CONTINUE;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package edu.hm.hafner.coverage;
+
+import org.junit.jupiter.api.Test;
+
+import edu.hm.hafner.coverage.Coverage.CoverageBuilder;
+
+import static edu.hm.hafner.coverage.assertions.Assertions.*;
+
+class ValueAccumulatorTest {
+    @Test
+    void shouldReturnEmptySumWithoutValues() {
+        assertThat(new ValueAccumulator().getSum()).isEmpty();
+    }
+
+    @Test
+    void shouldReturnSingleValue() {
+        var value = new Value(Metric.LOC, 1, 3);
+        var sum = new ValueAccumulator();
+        sum.add(value);
+
+        assertThat(sum.getSum()).containsSame(value);
+    }
+
+    @Test
+    void shouldSumCoverages() {
+        var builder = new CoverageBuilder().withMetric(Metric.LINE);
+        var sum = new ValueAccumulator();
+        sum.add(builder.withCovered(1).withMissed(2).build());
+        sum.add(builder.withCovered(3).withMissed(4).build());
+        sum.add(builder.withCovered(500).withMissed(600).build());
+
+        assertThat(sum.getSum()).contains(builder.withCovered(504).withMissed(606).build());
+    }
+
+    @Test
+    void shouldSumIntegersAndFractions() {
+        var sum = new ValueAccumulator();
+        sum.add(new Value(Metric.LOC, 10));
+        sum.add(new Value(Metric.LOC, 20));
+        assertThat(sum.getSum()).contains(new Value(Metric.LOC, 30));
+
+        sum.add(new Value(Metric.LOC, 1, 2));
+        sum.add(new Value(Metric.LOC, 5));
+        assertThat(sum.getSum()).contains(new Value(Metric.LOC, 71, 2));
+    }
+
+    @Test
+    void shouldFallBackToValueArithmeticOnOverflow() {
+        var sum = new ValueAccumulator();
+        sum.add(new Value(Metric.LOC, Integer.MAX_VALUE - 1));
+        sum.add(new Value(Metric.LOC, 1));
+        assertThat(sum.getSum()).contains(new Value(Metric.LOC, Integer.MAX_VALUE));
+
+        assertThatExceptionOfType(ArithmeticException.class).isThrownBy(() -> sum.add(new Value(Metric.LOC, 1)));
+    }
+
+    @Test
+    void shouldRejectDifferentMetrics() {
+        var sum = new ValueAccumulator();
+        sum.add(new Value(Metric.LOC, 1));
+        sum.add(new Value(Metric.LOC, 2));
+
+        assertThatIllegalArgumentException().isThrownBy(() -> sum.add(new Value(Metric.NCSS, 1)))
+                .withMessage("Cannot calculate with different metrics: LOC: 3 and NCSS: 1");
+    }
+}
@@ -0,0 +1,74 @@
+package edu.hm.hafner.coverage;
+
+import java.util.Objects;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import edu.hm.hafner.coverage.Coverage.CoverageBuilder;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+
+import static edu.hm.hafner.coverage.assertions.Assertions.*;
+
+class ValueParserTest {
+    @Test
+    void shouldParseSerializedValues() {
+        assertThat(parse("LINE: 10/100"))
+                .isEqualTo(new CoverageBuilder().withMetric(Metric.LINE).withCovered(10).withTotal(100).build());
+        assertThat(parse(" mcdc-pair :1 0 / 1 0 0 "))
+                .isEqualTo(new CoverageBuilder().withMetric(Metric.MCDC_PAIR).withCovered(10).withTotal(100).build());
+        assertThat(parse("LOC: 160")).isEqualTo(new Value(Metric.LOC, 160));
+        assertThat(parse("COMPLEXITY: -5")).isEqualTo(new Value(Metric.CYCLOMATIC_COMPLEXITY, -5));
+        assertThat(parse("COHESION: 1:2")).isEqualTo(new Value(Metric.COHESION, 1, 2));
+        assertThat(parse("LOC: Δ160")).isEqualTo(new Difference(Metric.LOC, 160));
+        assertThat(parse("COHESION: Δ-1:3")).isEqualTo(new Difference(Metric.COHESION, -1, 3));
+        assertThat(parseCoverage(Metric.BRANCH, "3 / 17"))
+                .isEqualTo(new CoverageBuilder().withMetric(Metric.BRANCH).withCovered(3).withTotal(17).build());
+    }
+
+    @ValueSource(strings = {"", "LOC", "LOC:", "UNKNOWN: 1", "LOC: 1.5", "LOC: +1", "LOC: 1234567890",
+            "LOC: 1:0", "LOC: 1:-2", "LOC: 1:2:3", "LINE: 5/3", "LINE: -1/3", "LINE: Δ1/3", "LINE: 1/2/3",
+            "LOC: Δ", "LÖC: 1", "LOC:\u20031"})
+    @ParameterizedTest(name = "{0} should be delegated to the general parser")
+    void shouldRejectUnsupportedFormats(final String text) {
+        assertThat(canParse(text)).isFalse();
+    }
+
+    @Test
+    void shouldRejectUnsupportedCoverageFormats() {
+        assertThat(canParseCoverage(null)).isFalse();
+        assertThat(canParseCoverage("10")).isFalse();
+        assertThat(canParseCoverage("10/5")).isFalse();
+        assertThat(canParseCoverage("10:20")).isFalse();
+    }
+
+    @Test
+    void shouldParseSerializationOfAllMetrics() {
+        for (Metric metric : Metric.values()) {
+            var coverage = new CoverageBuilder().withMetric(metric).withCovered(3).withMissed(4).build();
+            var value = new Value(metric, -3, 4);
+            var difference = new Difference(metric, 5);
+
+            assertThat(parse(coverage.serialize())).isEqualTo(coverage);
+            assertThat(parse(value.serialize())).isEqualTo(value);
+            assertThat(parse(difference.serialize())).isEqualTo(difference);
+        }
+    }
+
+    private static Value parse(final String text) {
+        return Objects.requireNonNull(ValueParser.parse(text));
+    }
+
+    private static Coverage parseCoverage(final Metric metric, final String text) {
+        return Objects.requireNonNull(ValueParser.parseCoverage(metric, text));
+    }
+
+    private static boolean canParse(final String text) {
+        return ValueParser.parse(text) != null;
+    }
+
+    private static boolean canParseCoverage(@CheckForNull final String text) {
+        return ValueParser.parseCoverage(Metric.LINE, text) != null;
+    }
+}
@@ -0,0 +1,99 @@
+package edu.hm.hafner.coverage;
+
+import org.apache.commons.lang3.SerializationUtils;
+import org.junit.jupiter.api.Test;
+
+import edu.hm.hafner.coverage.Coverage.CoverageBuilder;
+
+import static edu.hm.hafner.coverage.assertions.Assertions.*;
+
+class ValuePoolTest {
+    @Test
+    void shouldReturnValuesAsIsIfDisabled() {
+        var pool = new ValuePool(0);
+
+        var first = new Value(Metric.LOC, 100);
+        var second = new Value(Metric.LOC, 100);
+
+        assertThat(pool.isEnabled()).isFalse();
+        assertThat(pool.intern(first)).isSameAs(first);
+        assertThat(pool.intern(second)).isSameAs(second);
+        assertThat(pool.getStatistics()).isEqualTo(new ValuePool.Statistics(0, 0, 0, 0));
+    }
+
+    @Test
+    void shouldShareEqualValues() {
+        var pool = new ValuePool(100);
+
+        var first = new Value(Metric.LOC, 100);
+        var difference = new Difference(Metric.LOC, 100);
+
+        assertThat(pool.isEnabled()).isTrue();
+        assertThat(pool.intern(first)).isSameAs(first);
+        assertThat(pool.intern(new Value(Metric.LOC, 100))).isSameAs(first);
+        assertThat(pool.intern(difference)).isSameAs(difference);
+        assertThat(pool.intern(new Value(Metric.CYCLOMATIC_COMPLEXITY, 100))).isNotSameAs(first);
+
+        var statistics = pool.getStatistics();
+        assertThat(statistics.hits()).isEqualTo(1);
+        assertThat(statistics.misses()).isEqualTo(3);
+        assertThat(statistics.size()).isEqualTo(3);
+        assertThat(statistics.hitRate()).isEqualTo(0.25);
+
+        pool.clear();
+        assertThat(pool.getStatistics()).isEqualTo(new ValuePool.Statistics(0, 0, 0, 0));
+        assertThat(pool.getStatistics().hitRate()).isZero();
+    }
+
+    @Test
+    void shouldEvictValuesIfPoolIsFull() {
+        var pool = new ValuePool(4);
+
+        var retained = new Value(Metric.LOC, 0);
+        pool.intern(retained);
+        for (int value = 1; value < 100; value++) {
+            pool.intern(new Value(Metric.LOC, value));
+            assertThat(pool.intern(new Value(Metric.LOC, 0))).isSameAs(retained);
+            assertThat(pool.size()).isLessThanOrEqualTo(4);
+        }
+
+        var statistics = pool.getStatistics();
+        assertThat(statistics.misses()).isEqualTo(100);
+        assertThat(statistics.hits()).isEqualTo(99);
+        assertThat(statistics.evictions()).isPositive();
+        assertThat(statistics.evictions() + statistics.size()).isEqualTo(100);
+    }
+
+    @Test
+    void shouldRejectNegativeSize() {
+        var pool = new ValuePool(0);
+
+        assertThatExceptionOfType(AssertionError.class)
+                .isThrownBy(() -> pool.setMaximumSize(-1))
+                .withMessageContaining("-1");
+    }
+
+    @Test
+    void shouldUseDefaultPoolInFactoriesAndDeserialization() {
+        assertThat(ValuePool.getDefault().isEnabled()).isFalse();
+
+        var previous = ValuePool.replaceDefault(new ValuePool(1000));
+        try {
+            var coverage = new CoverageBuilder().withMetric(Metric.BRANCH).withCovered(3).withMissed(17).build();
+            assertThat(new CoverageBuilder().withMetric(Metric.BRANCH).withCovered(3).withMissed(17).build())
+                    .isSameAs(coverage);
+            assertThat(SerializationUtils.clone(coverage)).isSameAs(coverage);
+
+            var complexity = Value.valueOf(Metric.CYCLOMATIC_COMPLEXITY, 42);
+            assertThat(Value.valueOf("COMPLEXITY: 42")).isSameAs(complexity);
+            assertThat(SerializationUtils.clone(complexity)).isSameAs(complexity);
+            assertThat(SerializationUtils.clone(new Value(Metric.CYCLOMATIC_COMPLEXITY, 42))).isSameAs(complexity);
+        }
+        finally {
+            ValuePool.replaceDefault(previous);
+        }
+
+        var coverage = new CoverageBuilder().withMetric(Metric.BRANCH).withCovered(3).withMissed(17).build();
+        assertThat(SerializationUtils.clone(coverage)).isEqualTo(coverage).isNotSameAs(coverage);
+    }
+}
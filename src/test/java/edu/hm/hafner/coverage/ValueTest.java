@@ -3,6 +3,7 @@ package edu.hm.hafner.coverage;
 import org.apache.commons.lang3.math.Fraction;
 import org.junit.jupiter.api.Test;
 
+import java.nio.CharBuffer;
 import java.util.List;
 import java.util.Locale;
 import java.util.NoSuchElementException;
@@ -144,6 +145,45 @@ class ValueTest {
         assertThatInstanceIsCorrectlySerializedAndDeserialized(linesOfCode);
     }
 
+    @Test
+    void shouldComputeIntegerValuesWithoutFractions() {
+        var ten = new Value(Metric.LOC, 10);
+        var three = new Value(Metric.LOC, 3);
+
+        assertThat(ten.add(three)).isEqualTo(new Value(Metric.LOC, 13))
+                .hasFraction(Fraction.getFraction(13, 1));
+        assertThat(ten.subtract(three)).isEqualTo(new Difference(Metric.LOC, 7));
+        assertThat(three.subtract(ten)).isEqualTo(new Difference(Metric.LOC, -7));
+        assertThat(ten.max(three)).isSameAs(ten);
+        assertThat(three.max(ten)).isSameAs(ten);
+
+        var maximum = new Value(Metric.LOC, Integer.MAX_VALUE);
+        assertThat(maximum.subtract(new Value(Metric.LOC, Integer.MAX_VALUE - 1)))
+                .isEqualTo(new Difference(Metric.LOC, 1));
+        assertThat(new Value(Metric.LOC, Integer.MIN_VALUE).add(maximum))
+                .isEqualTo(new Value(Metric.LOC, -1));
+        assertThatExceptionOfType(ArithmeticException.class)
+                .isThrownBy(() -> maximum.add(new Value(Metric.LOC, 1)));
+
+        var half = new Value(Metric.COHESION, 1, 2);
+        var third = new Value(Metric.COHESION, 1, 3);
+        assertThat(half.add(third)).hasFraction(Fraction.getFraction(5, 6));
+        assertThat(half.subtract(third)).hasFraction(Fraction.getFraction(1, 6));
+        assertThat(third.max(half)).isSameAs(half);
+    }
+
+    @Test
+    void shouldParseAllValues() {
+        assertThat(Value.parseAll("LINE: 10/100", CharBuffer.wrap("LOC: 160"), "COMPLEXITY: Δ-5", "COHESION: 1.5"))
+                .containsExactly(Value.valueOf("LINE: 10/100"), new Value(Metric.LOC, 160),
+                        new Difference(Metric.CYCLOMATIC_COMPLEXITY, -5), new Value(Metric.COHESION, 3, 2));
+        assertThat(Value.parseAll()).isEmpty();
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> Value.parseAll("LOC: 1", "LOC: BadNumber"))
+                .withMessage("Cannot convert 'LOC: BadNumber' to a valid Value instance.");
+    }
+
     @Test
     void shouldThrowExceptionOnInvalidStringRepresentation() {
         var badRepresentation = "Bad representation";